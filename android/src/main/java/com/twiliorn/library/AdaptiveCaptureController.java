@@ -0,0 +1,203 @@
+/**
+ * Steps the camera capture format up or down a fixed resolution/fps ladder based on
+ * CPU load, device temperature and the local network quality level.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AdaptiveCaptureController {
+    private static final long SAMPLE_INTERVAL_MS = 5000;
+    // Consecutive healthy samples needed before stepping up, to avoid oscillating between rungs
+    private static final int STEP_UP_SAMPLES = 3;
+
+    // In cores: capture, processing and encoding of a frame mostly run one after another, so
+    // frames back up once the process needs about a whole core, however many the device has
+    private static final double CPU_LOAD_HIGH = 0.9;
+    private static final double CPU_LOAD_LOW = 0.5;
+    private static final float TEMPERATURE_HIGH = 42f;
+    private static final float TEMPERATURE_LOW = 38f;
+    private static final int NETWORK_QUALITY_LOW = 2;
+    private static final int NETWORK_QUALITY_HIGH = 4;
+    private static final int NETWORK_QUALITY_UNKNOWN = -1;
+
+    public static final String REASON_CPU = "cpu";
+    public static final String REASON_THERMAL = "thermal";
+    public static final String REASON_NETWORK = "network";
+    public static final String REASON_HEADROOM = "headroom";
+
+    private static final VideoFormat[] LADDER = {
+            new VideoFormat(VideoDimensions.QVGA_VIDEO_DIMENSIONS, 15),
+            new VideoFormat(VideoDimensions.CIF_VIDEO_DIMENSIONS, 15),
+            new VideoFormat(VideoDimensions.VGA_VIDEO_DIMENSIONS, 24),
+            new VideoFormat(VideoDimensions.HD_720P_VIDEO_DIMENSIONS, 30),
+    };
+
+    public interface Listener {
+        void onCaptureFormatChanged(VideoFormat format, String reason, double cpuLoad, float temperature);
+    }
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // LADDER capped at the ceiling
+    private final VideoFormat[] ladder;
+    private final int maxRung;
+    private int rung;
+    private int healthySamples = 0;
+    private int networkQualityLevel = NETWORK_QUALITY_UNKNOWN;
+    private long lastCpuTimeMs;
+    private long lastWallTimeMs;
+    private boolean running = false;
+
+    /*
+     * The ceiling format caps the dimensions and frame rate of every rung, the controller starts
+     * at the highest rung.
+     */
+    public AdaptiveCaptureController(Context context, VideoFormat ceiling, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+        this.ladder = ladderFor(ceiling);
+        this.maxRung = ladder.length - 1;
+        this.rung = maxRung;
+    }
+
+    public VideoFormat getCurrentFormat() {
+        return ladder[rung];
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        healthySamples = 0;
+        lastCpuTimeMs = Process.getElapsedCpuTime();
+        lastWallTimeMs = SystemClock.elapsedRealtime();
+        handler.postDelayed(sampler, SAMPLE_INTERVAL_MS);
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(sampler);
+    }
+
+    /*
+     * Level as reported to JS: 0 (worst) to 5 (best), or -1 when unknown.
+     */
+    public void setNetworkQualityLevel(int level) {
+        networkQualityLevel = level;
+    }
+
+    private final Runnable sampler = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) {
+                return;
+            }
+            sample();
+            handler.postDelayed(this, SAMPLE_INTERVAL_MS);
+        }
+    };
+
+    private void sample() {
+        double cpuLoad = sampleCpuLoad();
+        float temperature = readBatteryTemperature();
+
+        String downReason = null;
+        if (cpuLoad > CPU_LOAD_HIGH) {
+            downReason = REASON_CPU;
+        } else if (temperature >= TEMPERATURE_HIGH) {
+            downReason = REASON_THERMAL;
+        } else if (networkQualityLevel != NETWORK_QUALITY_UNKNOWN && networkQualityLevel <= NETWORK_QUALITY_LOW) {
+            downReason = REASON_NETWORK;
+        }
+
+        if (downReason != null) {
+            healthySamples = 0;
+            if (rung > 0) {
+                rung--;
+                listener.onCaptureFormatChanged(ladder[rung], downReason, cpuLoad, temperature);
+            }
+            return;
+        }
+
+        boolean healthy = cpuLoad < CPU_LOAD_LOW
+                && temperature < TEMPERATURE_LOW
+                && (networkQualityLevel == NETWORK_QUALITY_UNKNOWN || networkQualityLevel >= NETWORK_QUALITY_HIGH);
+        if (!healthy) {
+            healthySamples = 0;
+            return;
+        }
+
+        healthySamples++;
+        if (healthySamples >= STEP_UP_SAMPLES && rung < maxRung) {
+            healthySamples = 0;
+            rung++;
+            listener.onCaptureFormatChanged(ladder[rung], REASON_HEADROOM, cpuLoad, temperature);
+        }
+    }
+
+    /*
+     * Cores' worth of CPU time used by this process since the previous sample, 1 is one core busy.
+     */
+    private double sampleCpuLoad() {
+        long cpuTimeMs = Process.getElapsedCpuTime();
+        long wallTimeMs = SystemClock.elapsedRealtime();
+        long wallDelta = wallTimeMs - lastWallTimeMs;
+        long cpuDelta = cpuTimeMs - lastCpuTimeMs;
+        lastCpuTimeMs = cpuTimeMs;
+        lastWallTimeMs = wallTimeMs;
+        if (wallDelta <= 0) {
+            return 0;
+        }
+        return cpuDelta / (double) wallDelta;
+    }
+
+    /*
+     * Battery temperature in degrees Celsius, used as the device thermal signal.
+     */
+    private float readBatteryTemperature() {
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null) {
+            return 0f;
+        }
+        return battery.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, 0) / 10f;
+    }
+
+    /*
+     * The rungs smaller than the ceiling in either orientation, at no more than its frame rate,
+     * topped by the ceiling itself, so adaptation starts at the format the caller asked for. A
+     * ceiling below the lowest rung is the only rung.
+     */
+    private static VideoFormat[] ladderFor(VideoFormat ceiling) {
+        int ceilingLong = Math.max(ceiling.dimensions.width, ceiling.dimensions.height);
+        int ceilingShort = Math.min(ceiling.dimensions.width, ceiling.dimensions.height);
+        List<VideoFormat> rungs = new ArrayList<>();
+        for (VideoFormat format : LADDER) {
+            VideoDimensions dimensions = format.dimensions;
+            boolean fits = Math.max(dimensions.width, dimensions.height) <= ceilingLong
+                    && Math.min(dimensions.width, dimensions.height) <= ceilingShort;
+            boolean same = Math.max(dimensions.width, dimensions.height) == ceilingLong
+                    && Math.min(dimensions.width, dimensions.height) == ceilingShort;
+            if (fits && !same) {
+                rungs.add(new VideoFormat(dimensions, Math.min(format.framerate, ceiling.framerate)));
+            }
+        }
+        rungs.add(ceiling);
+        return rungs.toArray(new VideoFormat[0]);
+    }
+}
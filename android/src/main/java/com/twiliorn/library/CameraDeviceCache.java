@@ -0,0 +1,89 @@
+/**
+ * Process-wide cache of the camera devices and their capture formats.
+ * <p>
+ * Camera1 enumeration opens every camera to read its formats, which is slow and can keep the
+ * cameras from other apps, so devices are listed once per process and through Camera2 wherever
+ * the device supports it, which only reads their characteristics.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.Log;
+
+import tvi.webrtc.Camera1Enumerator;
+import tvi.webrtc.Camera2Enumerator;
+import tvi.webrtc.CameraEnumerationAndroid.CaptureFormat;
+import tvi.webrtc.CameraEnumerator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CameraDeviceCache {
+    private static final String TAG = "CameraDeviceCache";
+
+    private static Devices devices;
+
+    private CameraDeviceCache() {
+    }
+
+    public static final class Devices {
+        // Whether the devices are Camera2 ids, to be opened with a Camera2Capturer
+        public final boolean isCamera2;
+        // Null when the device has no camera facing that way
+        public final String frontFacing;
+        public final String backFacing;
+        private final Map<String, List<CaptureFormat>> supportedFormats;
+
+        Devices(boolean isCamera2, String frontFacing, String backFacing,
+                Map<String, List<CaptureFormat>> supportedFormats) {
+            this.isCamera2 = isCamera2;
+            this.frontFacing = frontFacing;
+            this.backFacing = backFacing;
+            this.supportedFormats = supportedFormats;
+        }
+
+        public List<CaptureFormat> getSupportedFormats(String deviceName) {
+            List<CaptureFormat> formats = supportedFormats.get(deviceName);
+            return formats != null ? formats : Collections.<CaptureFormat>emptyList();
+        }
+    }
+
+    /*
+     * Returns the cameras, enumerating them only on the first call in this process.
+     */
+    public static synchronized Devices get(Context context) {
+        if (devices == null) {
+            long start = System.nanoTime();
+            devices = enumerate(context.getApplicationContext());
+            Log.d(TAG, "Enumerated " + (devices.isCamera2 ? "Camera2" : "Camera1") + " devices in "
+                    + (System.nanoTime() - start) / 1000000 + "ms");
+        }
+        return devices;
+    }
+
+    private static Devices enumerate(Context context) {
+        boolean isCamera2 = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                && Camera2Enumerator.isSupported(context);
+        CameraEnumerator enumerator = isCamera2 ? new Camera2Enumerator(context) : new Camera1Enumerator();
+
+        String frontFacing = null;
+        String backFacing = null;
+        Map<String, List<CaptureFormat>> supportedFormats = new HashMap<>();
+        for (String deviceName : enumerator.getDeviceNames()) {
+            List<CaptureFormat> formats = enumerator.getSupportedFormats(deviceName);
+            if (formats == null || formats.isEmpty()) {
+                continue;
+            }
+            supportedFormats.put(deviceName, Collections.unmodifiableList(formats));
+            if (enumerator.isBackFacing(deviceName)) {
+                backFacing = deviceName;
+            } else if (enumerator.isFrontFacing(deviceName)) {
+                frontFacing = deviceName;
+            }
+        }
+        return new Devices(isCamera2, frontFacing, backFacing, supportedFormats);
+    }
+}
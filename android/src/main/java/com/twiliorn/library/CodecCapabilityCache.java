@@ -0,0 +1,123 @@
+/**
+ * Process-wide cache of the hardware codec capability probe.
+ * <p>
+ * Enumerating MediaCodecList through the hardware encoder/decoder factories is
+ * slow on low-end devices, so the result is computed once per process and
+ * persisted per build fingerprint.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import tvi.webrtc.HardwareVideoDecoderFactory;
+import tvi.webrtc.HardwareVideoEncoderFactory;
+import tvi.webrtc.VideoCodecInfo;
+
+public final class CodecCapabilityCache {
+    private static final String TAG = "CodecCapabilityCache";
+    private static final String PREFERENCES_NAME = "com.twiliorn.library.CodecCapabilityCache";
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_H264_SUPPORTED = "h264Supported";
+    private static final String WARM_UP_THREAD_NAME = "CodecCapabilityWarmUp";
+
+    public static final String SOURCE_MEMORY = "memory";
+    public static final String SOURCE_PREFERENCES = "preferences";
+    public static final String SOURCE_PROBE = "probe";
+
+    private static Boolean h264Supported;
+
+    private CodecCapabilityCache() {
+    }
+
+    /*
+     * Outcome of a capability lookup, including where it came from and how long it took.
+     */
+    public static final class Result {
+        public final boolean isH264Supported;
+        public final String source;
+        public final double durationMs;
+
+        Result(boolean isH264Supported, String source, double durationMs) {
+            this.isH264Supported = isH264Supported;
+            this.source = source;
+            this.durationMs = durationMs;
+        }
+
+        public boolean isCacheHit() {
+            return !SOURCE_PROBE.equals(source);
+        }
+    }
+
+    /*
+     * Populate the cache on a background thread so the first connect does not pay for the probe.
+     */
+    public static void warmUp(final Context context) {
+        final Context applicationContext = context.getApplicationContext();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Result result = get(applicationContext);
+                Log.d(TAG, "Warm up finished from " + result.source + " in " + result.durationMs + "ms");
+            }
+        }, WARM_UP_THREAD_NAME);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /*
+     * Returns the H.264 hardware support, probing the codec factories only on the first call
+     * for this build fingerprint.
+     */
+    public static synchronized Result get(Context context) {
+        long start = System.nanoTime();
+
+        if (h264Supported != null) {
+            return new Result(h264Supported, SOURCE_MEMORY, elapsedMs(start));
+        }
+
+        SharedPreferences preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        if (Build.FINGERPRINT.equals(preferences.getString(KEY_FINGERPRINT, null))
+                && preferences.contains(KEY_H264_SUPPORTED)) {
+            h264Supported = preferences.getBoolean(KEY_H264_SUPPORTED, false);
+            return new Result(h264Supported, SOURCE_PREFERENCES, elapsedMs(start));
+        }
+
+        h264Supported = probeH264Support();
+        preferences.edit()
+                .putString(KEY_FINGERPRINT, Build.FINGERPRINT)
+                .putBoolean(KEY_H264_SUPPORTED, h264Supported)
+                .apply();
+        return new Result(h264Supported, SOURCE_PROBE, elapsedMs(start));
+    }
+
+    // H264 Codec Support Detection: https://www.twilio.com/docs/video/managing-codecs
+    private static boolean probeH264Support() {
+        HardwareVideoEncoderFactory hardwareVideoEncoderFactory = new HardwareVideoEncoderFactory(null, true, true);
+        HardwareVideoDecoderFactory hardwareVideoDecoderFactory = new HardwareVideoDecoderFactory(null);
+
+        boolean h264EncoderSupported = false;
+        for (VideoCodecInfo videoCodecInfo : hardwareVideoEncoderFactory.getSupportedCodecs()) {
+            if (videoCodecInfo.name.equalsIgnoreCase("h264")) {
+                h264EncoderSupported = true;
+                break;
+            }
+        }
+        boolean h264DecoderSupported = false;
+        for (VideoCodecInfo videoCodecInfo : hardwareVideoDecoderFactory.getSupportedCodecs()) {
+            if (videoCodecInfo.name.equalsIgnoreCase("h264")) {
+                h264DecoderSupported = true;
+                break;
+            }
+        }
+
+        return h264EncoderSupported && h264DecoderSupported;
+    }
+
+    private static double elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1e6;
+    }
+}
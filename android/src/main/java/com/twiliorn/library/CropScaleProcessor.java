@@ -0,0 +1,59 @@
+/**
+ * Center-crops frames to the aspect ratio of a target size and downscales them to fit it.
+ * <p>
+ * Uses VideoFrame.Buffer.cropAndScale, which for the texture frames of the camera only adjusts
+ * the transform applied when the frame is drawn or encoded, no pixels are copied.
+ */
+package com.twiliorn.library;
+
+import tvi.webrtc.VideoFrame;
+
+public class CropScaleProcessor implements FrameProcessor {
+    private final String name;
+    // Target in the orientation the frame is displayed in
+    private final int targetWidth;
+    private final int targetHeight;
+
+    public CropScaleProcessor(String name, int targetWidth, int targetHeight) {
+        this.name = name;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public VideoFrame process(VideoFrame frame, I420BufferPool pool) {
+        VideoFrame.Buffer buffer = frame.getBuffer();
+        int width = buffer.getWidth();
+        int height = buffer.getHeight();
+        // The buffer is in sensor orientation, a quarter turn swaps the target
+        boolean rotated = frame.getRotation() % 180 != 0;
+        int outWidth = rotated ? targetHeight : targetWidth;
+        int outHeight = rotated ? targetWidth : targetHeight;
+
+        int cropWidth = width;
+        int cropHeight = height;
+        if ((long) width * outHeight > (long) height * outWidth) {
+            cropWidth = (int) ((long) height * outWidth / outHeight);
+        } else {
+            cropHeight = (int) ((long) width * outHeight / outWidth);
+        }
+        // Never upscale, and keep dimensions even for the chroma planes
+        int scaleWidth = Math.min(cropWidth, outWidth) & ~1;
+        int scaleHeight = Math.min(cropHeight, outHeight) & ~1;
+        cropWidth &= ~1;
+        cropHeight &= ~1;
+        if (cropWidth == width && cropHeight == height && scaleWidth == width && scaleHeight == height) {
+            return frame;
+        }
+
+        VideoFrame.Buffer cropped = buffer.cropAndScale(
+                (width - cropWidth) / 2, (height - cropHeight) / 2, cropWidth, cropHeight,
+                scaleWidth, scaleHeight);
+        return new VideoFrame(cropped, frame.getRotation(), frame.getTimestampNs());
+    }
+}
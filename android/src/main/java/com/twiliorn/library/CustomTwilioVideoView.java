@@ -9,8 +9,14 @@
 package com.twiliorn.library;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
@@ -23,8 +29,10 @@ import android.media.AudioManager;
 import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.StringDef;
+import android.util.Base64;
 import android.util.Log;
 import android.view.View;
 
@@ -36,9 +44,15 @@ import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
 import com.twilio.video.AudioTrackPublication;
+import com.twilio.video.BandwidthProfileOptions;
 import com.twilio.video.BaseTrackStats;
+import com.twilio.video.Camera2Capturer;
 import com.twilio.video.CameraCapturer;
 import com.twilio.video.ConnectOptions;
+import com.twilio.video.DataTrackOptions;
+import com.twilio.video.EncodingParameters;
+import com.twilio.video.IceCandidatePairStats;
+import com.twilio.video.IceCandidateStats;
 import com.twilio.video.LocalAudioTrack;
 import com.twilio.video.LocalAudioTrackPublication;
 import com.twilio.video.LocalAudioTrackStats;
@@ -67,19 +81,17 @@ import com.twilio.video.Room;
 import com.twilio.video.Room.State;
 import com.twilio.video.StatsListener;
 import com.twilio.video.StatsReport;
+import com.twilio.video.TrackPriority;
 import com.twilio.video.TrackPublication;
 import com.twilio.video.TwilioException;
 import com.twilio.video.Video;
 import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoCapturer;
 import com.twilio.video.VideoFormat;
 import com.twilio.video.VideoCodec;
 
 import org.webrtc.voiceengine.WebRtcAudioManager;
 
-import tvi.webrtc.Camera1Enumerator;
-import tvi.webrtc.HardwareVideoEncoderFactory;
-import tvi.webrtc.HardwareVideoDecoderFactory;
-import tvi.webrtc.VideoCodecInfo;
 import com.twilio.video.H264Codec;
 import com.twilio.video.Vp8Codec;
 
@@ -111,12 +123,29 @@ import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_RECEIVE
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_VIDEO_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DOMINANT_SPEAKER_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CODEC_PROBE_COMPLETED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAPTURE_FORMAT_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_EVENT_BATCH;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATATRACK_BINARY_MESSAGE_RECEIVED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_SENDER_STATS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_TRANSFER_PROGRESS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_TRANSFER_FAILED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_MESSAGE_BATCH;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_SAMPLE;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_SUMMARY;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_MEDIA_TIMINGS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_LOCAL_VIDEO_LIFECYCLE;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_VIDEO_PROCESSOR_STATS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_FRAME_GOVERNOR_METRICS;
 
 public class CustomTwilioVideoView extends View implements LifecycleEventListener, AudioManager.OnAudioFocusChangeListener {
     private static final String TAG = "CustomTwilioVideoView";
     private static final String DATA_TRACK_MESSAGE_THREAD_NAME = "DataTrackMessages";
     private static final String FRONT_CAMERA_TYPE = "front";
     private static final String BACK_CAMERA_TYPE = "back";
+    private static final String SYNTHETIC_CAMERA_TYPE = "synthetic";
+    // Smallest change of the camera frame rate the frame governor reopens the camera for
+    private static final int CAPTURE_FPS_STEP = 5;
     private boolean enableRemoteAudio = false;
     private boolean enableNetworkQualityReporting = false;
     private boolean isVideoEnabled = false;
@@ -126,6 +155,34 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     private boolean maintainVideoTrackInBackground = false;
     private String cameraType = "";
     private boolean enableH264Codec = false;
+    private VideoFormat captureFormat = new VideoFormat(VideoDimensions.CIF_VIDEO_DIMENSIONS, 15);
+    private EncodingParameters encodingParameters = null;
+    private BandwidthProfileOptions bandwidthProfileOptions = null;
+    private AdaptiveCaptureController adaptiveCaptureController;
+    private volatile EventBatcher eventBatcher = null;
+    private final StatsSampler statsSampler = new StatsSampler(this::onStatsSample);
+    // 0 when periodic stats sampling is off
+    private long statsSamplingIntervalMs = 0;
+    private boolean emitStatsSamples = true;
+    // Per-track history of the samples for summaries, null when not kept
+    private StatsHistory statsHistory = null;
+    // Suspend rather than release the local video track in the background, see setBackgroundVideo
+    private boolean suspendVideoInBackground = false;
+    private long videoSuspendGracePeriodMs = 0;
+    private boolean localVideoSuspended = false;
+    private final Runnable releaseSuspendedLocalVideo = this::releaseSuspendedLocalVideo;
+    private long backgroundStartMs = MediaTimeline.UNSET;
+    // How the local video was brought back, null once its first captured frame was reported
+    private String videoResumeMode = null;
+    private long videoResumeStartMs;
+    // Capture format of local video created by startLocalPreview, null once a connect took it over
+    private VideoFormat previewFormat = null;
+    // Drops captured frames to hold a latency target, null when off
+    private FrameGovernor frameGovernor = null;
+    private boolean governCaptureFps = false;
+    private long lastGovernorEvaluationNanos;
+    // Frame rate the governor last set on the camera, 0 while it runs at the configured rate
+    private int governedCaptureFps = 0;
 
     @Retention(RetentionPolicy.SOURCE)
     @StringDef({Events.ON_CAMERA_SWITCHED,
@@ -151,6 +208,20 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             Events.ON_NETWORK_QUALITY_LEVELS_CHANGED,
             Events.ON_DOMINANT_SPEAKER_CHANGED,
             Events.ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS,
+            Events.ON_CODEC_PROBE_COMPLETED,
+            Events.ON_CAPTURE_FORMAT_CHANGED,
+            Events.ON_EVENT_BATCH,
+            Events.ON_DATATRACK_BINARY_MESSAGE_RECEIVED,
+            Events.ON_DATA_TRACK_SENDER_STATS,
+            Events.ON_DATA_TRACK_TRANSFER_PROGRESS,
+            Events.ON_DATA_TRACK_TRANSFER_FAILED,
+            Events.ON_DATA_TRACK_MESSAGE_BATCH,
+            Events.ON_STATS_SAMPLE,
+            Events.ON_STATS_SUMMARY,
+            Events.ON_MEDIA_TIMINGS,
+            Events.ON_LOCAL_VIDEO_LIFECYCLE,
+            Events.ON_VIDEO_PROCESSOR_STATS,
+            Events.ON_FRAME_GOVERNOR_METRICS,
     })
     public @interface Events {
         String ON_CAMERA_SWITCHED = "onCameraSwitched";
@@ -176,6 +247,20 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         String ON_NETWORK_QUALITY_LEVELS_CHANGED = "onNetworkQualityLevelsChanged";
         String ON_DOMINANT_SPEAKER_CHANGED = "onDominantSpeakerDidChange";
         String ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS = "onLocalParticipantSupportedCodecs";
+        String ON_CODEC_PROBE_COMPLETED = "onCodecProbeCompleted";
+        String ON_CAPTURE_FORMAT_CHANGED = "onCaptureFormatChanged";
+        String ON_EVENT_BATCH = "onEventBatch";
+        String ON_DATATRACK_BINARY_MESSAGE_RECEIVED = "onDataTrackBinaryMessageReceived";
+        String ON_DATA_TRACK_SENDER_STATS = "onDataTrackSenderStats";
+        String ON_DATA_TRACK_TRANSFER_PROGRESS = "onDataTrackTransferProgress";
+        String ON_DATA_TRACK_TRANSFER_FAILED = "onDataTrackTransferFailed";
+        String ON_DATA_TRACK_MESSAGE_BATCH = "onDataTrackMessageBatch";
+        String ON_STATS_SAMPLE = "onStatsSample";
+        String ON_STATS_SUMMARY = "onStatsSummary";
+        String ON_MEDIA_TIMINGS = "onMediaTimings";
+        String ON_LOCAL_VIDEO_LIFECYCLE = "onLocalVideoLifecycle";
+        String ON_VIDEO_PROCESSOR_STATS = "onVideoProcessorStats";
+        String ON_FRAME_GOVERNOR_METRICS = "onFrameGovernorMetrics";
     }
 
     private final ThemedReactContext themedReactContext;
@@ -200,7 +285,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     private static PatchedVideoView thumbnailVideoView;
     private static LocalVideoTrack localVideoTrack;
 
-    private static CameraCapturer cameraCapturer;
+    // A Camera2Capturer where the device supports Camera2, a CameraCapturer otherwise
+    private static VideoCapturer cameraCapturer;
+    // Processors the camera frames pass through on their way to the local video track
+    private static final FrameProcessingPipeline localVideoProcessing = new FrameProcessingPipeline();
     private LocalAudioTrack localAudioTrack;
     private AudioManager audioManager;
     private int previousAudioMode;
@@ -213,12 +301,42 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             new HandlerThread(DATA_TRACK_MESSAGE_THREAD_NAME);
     private Handler dataTrackMessageThreadHandler;
 
-    private LocalDataTrack localDataTrack;
+    // Local data tracks by name, messages without a channel go to the first one
+    private final Map<String, LocalDataTrack> localDataTracks = new ConcurrentHashMap<>();
+    private volatile String defaultDataTrackName = null;
+    // Aggregating/rate limiting send pipelines for the data tracks configured with one
+    private final Map<String, DataTrackSender> dataTrackSenders = new ConcurrentHashMap<>();
+
+    // Chunked payloads, only used on the data track message thread
+    private DataTrackReassembler dataTrackReassembler;
+    // Allocated on the UI thread by sendLargeMessage, so a refused transfer still gets an id
+    private int nextChunkedMessageId = 0;
+    // Bounded inbound queue, null delivers every message as its own event
+    private DataTrackInbox dataTrackInbox;
 
     // Map used to map remote data tracks to remote participants
     private final Map<RemoteDataTrack, RemoteParticipant> dataTrackRemoteParticipantMap =
             new HashMap<>();
 
+    // Subscribed remote video tracks indexed by track sid, and the track each remote view is bound to
+    private static final Map<String, RemoteVideoTrack> remoteVideoTracks = new HashMap<>();
+    private static final Map<PatchedVideoView, RemoteVideoTrack> videoSinkTracks = new HashMap<>();
+
+    // Priority hints derived from the rendered size of remote views
+    private static final RenderSizeHints renderSizeHints = createRenderSizeHints();
+    private static boolean renderSizeHintsEnabled = false;
+    private static final Set<String> pinnedTrackPriorities = new HashSet<>();
+
+    // Remote views whose track sid was set before the track was subscribed
+    private static final Map<String, Set<PatchedVideoView>> pendingVideoSinks = new HashMap<>();
+    private static final Map<PatchedVideoView, String> pendingVideoSinkTrackSids = new HashMap<>();
+
+    // Remote views that are off-screen or hidden, they keep their binding but are not added as sinks
+    private static final Set<PatchedVideoView> pausedVideoSinks = new HashSet<>();
+
+    // Join latency of the current call, reported by the view that connected
+    private static final MediaTimeline mediaTimeline = new MediaTimeline();
+
     public CustomTwilioVideoView(ThemedReactContext context) {
         super(context);
         this.themedReactContext = context;
@@ -234,39 +352,99 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         myNoisyAudioStreamReceiver = new BecomingNoisyReceiver();
         intentFilter = new IntentFilter(Intent.ACTION_HEADSET_PLUG);
 
-        // Create the local data track
-        // localDataTrack = LocalDataTrack.create(this);
-        localDataTrack = LocalDataTrack.create(getContext());
-
         // Start the thread where data messages are received
         dataTrackMessageThread.start();
         dataTrackMessageThreadHandler = new Handler(dataTrackMessageThread.getLooper());
+        dataTrackReassembler = new DataTrackReassembler(
+                new DataTrackReassembler.Config(),
+                dataTrackMessageThreadHandler,
+                dataTrackReassemblerListener());
 
     }
 
     // ===== SETUP =================================================================================
 
     private VideoFormat buildVideoFormat() {
-        return new VideoFormat(VideoDimensions.CIF_VIDEO_DIMENSIONS, 15);
+        if (adaptiveCaptureController != null) {
+            return adaptiveCaptureController.getCurrentFormat();
+        }
+        return captureFormat;
+    }
+
+    /*
+     * The frame processors of the local video, for the app to register its own or the built-in
+     * CropScaleProcessor, RotationProcessor and WatermarkProcessor.
+     */
+    public static FrameProcessingPipeline getLocalVideoProcessing() {
+        return localVideoProcessing;
+    }
+
+    private static VideoCapturer processedCapturer() {
+        return new ProcessingVideoCapturer(cameraCapturer, localVideoProcessing);
+    }
+
+    private static boolean isSameVideoFormat(VideoFormat a, VideoFormat b) {
+        return a.dimensions.width == b.dimensions.width
+                && a.dimensions.height == b.dimensions.height
+                && a.framerate == b.framerate;
+    }
+
+    private AdaptiveCaptureController createAdaptiveCaptureController(VideoFormat ceiling) {
+        return new AdaptiveCaptureController(getContext(), ceiling, new AdaptiveCaptureController.Listener() {
+            @Override
+            public void onCaptureFormatChanged(VideoFormat format, String reason, double cpuLoad, float temperature) {
+                if (cameraCapturer != null) {
+                    cameraCapturer.changeCaptureFormat(format.dimensions.width, format.dimensions.height, format.framerate);
+                }
+
+                WritableMap event = new WritableNativeMap();
+                event.putInt("width", format.dimensions.width);
+                event.putInt("height", format.dimensions.height);
+                event.putInt("frameRate", format.framerate);
+                event.putString("reason", reason);
+                event.putDouble("cpuLoad", cpuLoad);
+                event.putDouble("temperature", temperature);
+                pushEvent(CustomTwilioVideoView.this, ON_CAPTURE_FORMAT_CHANGED, event);
+            }
+        });
     }
 
-    private CameraCapturer createCameraCaputer(Context context, String cameraId) {
-        CameraCapturer newCameraCapturer = null;
+    private VideoCapturer createCameraCaputer(Context context, String cameraId) {
         try {
-            newCameraCapturer = new CameraCapturer(
+            if (CameraDeviceCache.get(context).isCamera2) {
+                return new Camera2Capturer(
+                        context,
+                        cameraId,
+                        new Camera2Capturer.Listener() {
+                            @Override
+                            public void onFirstFrameAvailable() {
+                                handler.post(CustomTwilioVideoView.this::onLocalVideoFirstFrame);
+                            }
+
+                            @Override
+                            public void onCameraSwitched(String newCameraId) {
+                                onCaptureCameraSwitched();
+                            }
+
+                            @Override
+                            public void onError(Camera2Capturer.Exception camera2CapturerException) {
+                                Log.i("CustomTwilioVideoView", "Error getting camera", camera2CapturerException);
+                            }
+                        }
+                );
+            }
+            return new CameraCapturer(
                     context,
                     cameraId,
                     new CameraCapturer.Listener() {
                         @Override
                         public void onFirstFrameAvailable() {
+                            handler.post(CustomTwilioVideoView.this::onLocalVideoFirstFrame);
                         }
 
                         @Override
                         public void onCameraSwitched(String newCameraId) {
-                            setThumbnailMirror();
-                            WritableMap event = new WritableNativeMap();
-                            event.putBoolean("isBackCamera", isCurrentCameraSourceBackFacing());
-                            pushEvent(CustomTwilioVideoView.this, ON_CAMERA_SWITCHED, event);
+                            onCaptureCameraSwitched();
                         }
 
                         @Override
@@ -275,33 +453,46 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                         }
                     }
             );
-            return newCameraCapturer;
         } catch (Exception e) {
             return null;
         }
     }
 
-    private void buildDeviceInfo() {
-        Camera1Enumerator enumerator = new Camera1Enumerator();
-        String[] deviceNames = enumerator.getDeviceNames();
-        backFacingDevice = null;
-        frontFacingDevice = null;
-        for (String deviceName : deviceNames) {
-            if (enumerator.isBackFacing(deviceName) && enumerator.getSupportedFormats(deviceName).size() > 0) {
-                backFacingDevice = deviceName;
-            } else if (enumerator.isFrontFacing(deviceName) && enumerator.getSupportedFormats(deviceName).size() > 0) {
-                frontFacingDevice = deviceName;
-            }
+    /*
+     * VideoCapturer declares stopCapture as throwing InterruptedException, the camera
+     * capturers never do.
+     */
+    private static void stopCameraCapture() {
+        try {
+            cameraCapturer.stopCapture();
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to stop camera capture", e);
         }
     }
 
+    private void onCaptureCameraSwitched() {
+        setThumbnailMirror();
+        WritableMap event = new WritableNativeMap();
+        event.putBoolean("isBackCamera", isCurrentCameraSourceBackFacing());
+        pushEvent(CustomTwilioVideoView.this, ON_CAMERA_SWITCHED, event);
+    }
+
+    private void buildDeviceInfo() {
+        CameraDeviceCache.Devices devices = CameraDeviceCache.get(getContext());
+        backFacingDevice = devices.backFacing;
+        frontFacingDevice = devices.frontFacing;
+    }
+
     private boolean createLocalVideo(boolean enableVideo, String cameraType) {
         isVideoEnabled = enableVideo;
 
         // Share your camera
         buildDeviceInfo();
 
-        if (cameraType.equals(CustomTwilioVideoView.FRONT_CAMERA_TYPE)) {
+        if (cameraType.equals(CustomTwilioVideoView.SYNTHETIC_CAMERA_TYPE)) {
+            // Generated frames, for emulators and for load testing the capture path
+            cameraCapturer = new SyntheticVideoCapturer();
+        } else if (cameraType.equals(CustomTwilioVideoView.FRONT_CAMERA_TYPE)) {
             if (frontFacingDevice != null) {
                 cameraCapturer = this.createCameraCaputer(getContext(), frontFacingDevice);
             } else {
@@ -325,7 +516,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             return false;
         }
 
-        localVideoTrack = LocalVideoTrack.create(getContext(), enableVideo, cameraCapturer, buildVideoFormat());
+        localVideoTrack = LocalVideoTrack.create(getContext(), enableVideo, processedCapturer(), buildVideoFormat());
         if (thumbnailVideoView != null && localVideoTrack != null) {
             localVideoTrack.addSink(thumbnailVideoView);
         }
@@ -333,6 +524,58 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         return true;
     }
 
+    // ===== LOCAL PREVIEW =========================================================================
+
+    /*
+     * Open the camera and create the local tracks ahead of connecting, e.g. on a lobby screen, so
+     * connectToRoomWrapper reuses them and joining only costs signaling. Tracks that already
+     * exist are kept.
+     */
+    public void startLocalPreview(boolean enableAudio, boolean enableVideo, String cameraType, VideoFormat captureFormat) {
+        if (enableAudio && localAudioTrack == null) {
+            localAudioTrack = LocalAudioTrack.create(getContext(), true);
+        }
+        if (enableVideo && cameraCapturer == null) {
+            this.cameraType = cameraType;
+            this.captureFormat = captureFormat;
+            if (adaptiveCaptureController != null) {
+                // Left over from the previous call, the next connect creates its own
+                adaptiveCaptureController.stop();
+                adaptiveCaptureController = null;
+            }
+            if (createLocalVideo(true, cameraType)) {
+                previewFormat = captureFormat;
+            }
+        }
+    }
+
+    /*
+     * Release the tracks of a preview that is not going to be connected.
+     */
+    public void stopLocalPreview() {
+        if (room != null) {
+            // Connecting or connected, the tracks are in use
+            return;
+        }
+        if (localAudioTrack != null) {
+            localAudioTrack.release();
+            localAudioTrack = null;
+        }
+        releaseLocalVideo();
+    }
+
+    private void releaseLocalVideo() {
+        previewFormat = null;
+        if (localVideoTrack != null) {
+            localVideoTrack.release();
+            localVideoTrack = null;
+        }
+        if (cameraCapturer != null) {
+            stopCameraCapture();
+            cameraCapturer = null;
+        }
+    }
+
     // ===== LIFECYCLE EVENTS ======================================================================
 
 
@@ -345,11 +588,17 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             /*
              * If the local video track was released when the app was put in the background, recreate.
              */
-            if (cameraCapturer != null && localVideoTrack == null) {
-                localVideoTrack = LocalVideoTrack.create(getContext(), isVideoEnabled, cameraCapturer, buildVideoFormat());
+            boolean videoTrackCreated = false;
+            if (localVideoSuspended) {
+                // Still published and attached to the thumbnail, only capture restarts
+                resumeSuspendedLocalVideo();
+            } else if (cameraCapturer != null && localVideoTrack == null) {
+                startVideoResumeTiming("track");
+                localVideoTrack = LocalVideoTrack.create(getContext(), isVideoEnabled, processedCapturer(), buildVideoFormat());
+                videoTrackCreated = localVideoTrack != null;
             }
 
-            if (localVideoTrack != null) {
+            if (videoTrackCreated) {
                 if (thumbnailVideoView != null) {
                     localVideoTrack.addSink(thumbnailVideoView);
                 }
@@ -377,6 +626,11 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
          * camera can be used by other applications while this app is in the background.
          */
         if (localVideoTrack != null && !maintainVideoTrackInBackground) {
+            backgroundStartMs = SystemClock.elapsedRealtime();
+            if (suspendVideoInBackground) {
+                suspendLocalVideo();
+                return;
+            }
             /*
              * If this local video track is being shared in a Room, remove from local
              * participant before releasing the video track. Participants will be notified that
@@ -388,7 +642,107 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
             localVideoTrack.release();
             localVideoTrack = null;
+            pushLocalVideoLifecycle("released", 0);
+        }
+    }
+
+    /*
+     * Keep app switches from costing a new track: with suspend set, going to the background
+     * disables the published track and stops the camera, and coming back restarts capture into
+     * the same track. The track is only released once it stayed suspended for gracePeriodMs,
+     * 0 keeps it until the app resumes.
+     */
+    public void setBackgroundVideo(boolean suspend, long gracePeriodMs) {
+        suspendVideoInBackground = suspend;
+        videoSuspendGracePeriodMs = gracePeriodMs;
+    }
+
+    private void suspendLocalVideo() {
+        if (localVideoSuspended) {
+            return;
+        }
+        localVideoSuspended = true;
+        // Remote participants see a disabled track instead of an unpublished one
+        localVideoTrack.enable(false);
+        if (cameraCapturer != null) {
+            // Frees the camera for other apps, the capturer keeps its device and format
+            stopCameraCapture();
+        }
+        if (videoSuspendGracePeriodMs > 0) {
+            handler.postDelayed(releaseSuspendedLocalVideo, videoSuspendGracePeriodMs);
+        }
+        WritableMap event = new WritableNativeMap();
+        event.putString("state", "suspended");
+        event.putDouble("gracePeriodMs", videoSuspendGracePeriodMs);
+        pushEvent(CustomTwilioVideoView.this, ON_LOCAL_VIDEO_LIFECYCLE, event);
+    }
+
+    private void resumeSuspendedLocalVideo() {
+        handler.removeCallbacks(releaseSuspendedLocalVideo);
+        localVideoSuspended = false;
+        startVideoResumeTiming("capture");
+        if (cameraCapturer != null) {
+            VideoFormat format = buildVideoFormat();
+            cameraCapturer.startCapture(format.dimensions.width, format.dimensions.height, format.framerate);
+        }
+        localVideoTrack.enable(isVideoEnabled);
+    }
+
+    /*
+     * The grace period ran out, fall back to what a pause without suspend does.
+     */
+    private void releaseSuspendedLocalVideo() {
+        if (!localVideoSuspended) {
+            return;
+        }
+        localVideoSuspended = false;
+        if (localVideoTrack != null) {
+            if (localParticipant != null) {
+                localParticipant.unpublishTrack(localVideoTrack);
+            }
+            localVideoTrack.release();
+            localVideoTrack = null;
+        }
+        pushLocalVideoLifecycle("released", SystemClock.elapsedRealtime() - backgroundStartMs);
+    }
+
+    private void cancelLocalVideoSuspend() {
+        handler.removeCallbacks(releaseSuspendedLocalVideo);
+        localVideoSuspended = false;
+        videoResumeMode = null;
+        backgroundStartMs = MediaTimeline.UNSET;
+    }
+
+    private void startVideoResumeTiming(String mode) {
+        if (backgroundStartMs != MediaTimeline.UNSET) {
+            videoResumeMode = mode;
+            videoResumeStartMs = SystemClock.elapsedRealtime();
+        }
+    }
+
+    /*
+     * Resume latency runs from onHostResume to the first frame the camera delivers again.
+     */
+    private void onLocalVideoFirstFrame() {
+        if (videoResumeMode == null) {
+            return;
         }
+        long nowMs = SystemClock.elapsedRealtime();
+        WritableMap event = new WritableNativeMap();
+        event.putString("state", "resumed");
+        event.putString("restarted", videoResumeMode);
+        event.putDouble("resumeMs", nowMs - videoResumeStartMs);
+        event.putDouble("backgroundMs", videoResumeStartMs - backgroundStartMs);
+        videoResumeMode = null;
+        backgroundStartMs = MediaTimeline.UNSET;
+        pushEvent(CustomTwilioVideoView.this, ON_LOCAL_VIDEO_LIFECYCLE, event);
+    }
+
+    private void pushLocalVideoLifecycle(String state, long backgroundMs) {
+        WritableMap event = new WritableNativeMap();
+        event.putString("state", state);
+        event.putDouble("backgroundMs", backgroundMs);
+        pushEvent(CustomTwilioVideoView.this, ON_LOCAL_VIDEO_LIFECYCLE, event);
     }
 
     @Override
@@ -411,6 +765,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         /*
          * Release the local media ensuring any memory allocated to audio or video is freed.
          */
+        cancelLocalVideoSuspend();
         if (localVideoTrack != null) {
             localVideoTrack.release();
             localVideoTrack = null;
@@ -422,14 +777,22 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             localAudioTrack = null;
         }
 
-        // Quit the data track message thread
-        dataTrackMessageThread.quit();
+        releaseLocalDataTracks();
+
+        // Quit the data track message thread once the data tracks posted above are released
+        dataTrackMessageThreadHandler.post(dataTrackMessageThread::quit);
 
 
     }
 
     public void releaseResource() {
         themedReactContext.removeLifecycleEventListener(this);
+        if (eventBatcher != null) {
+            eventBatcher.clear();
+            eventBatcher = null;
+        }
+        mediaTimeline.setListener(null);
+        setFrameGovernor(null, false);
         room = null;
         localVideoTrack = null;
         thumbnailVideoView = null;
@@ -448,8 +811,17 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             boolean dominantSpeakerEnabled,
             boolean maintainVideoTrackInBackground,
             String cameraType,
-            boolean enableH264Codec
+            boolean enableH264Codec,
+            VideoFormat captureFormat,
+            boolean adaptiveCaptureFormat,
+            EncodingParameters encodingParameters,
+            BandwidthProfileOptions bandwidthProfileOptions,
+            Map<TrackPriority, VideoDimensions> renderSizeHintDimensions,
+            List<DataTrackOptions> dataTrackOptions,
+            List<DataTrackSender.Config> dataTrackSenderConfigs
     ) {
+        mediaTimeline.markConnectStart();
+        mediaTimeline.setListener(this::onTrackTimings);
         this.roomName = roomName;
         this.accessToken = accessToken;
         this.enableRemoteAudio = enableRemoteAudio;
@@ -458,9 +830,38 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         this.maintainVideoTrackInBackground = maintainVideoTrackInBackground;
         this.cameraType = cameraType;
         this.enableH264Codec = enableH264Codec;
+        this.captureFormat = captureFormat;
+        this.encodingParameters = encodingParameters;
+        this.bandwidthProfileOptions = bandwidthProfileOptions;
 
-        // Share your microphone
-        localAudioTrack = LocalAudioTrack.create(getContext(), enableAudio);
+        renderSizeHintsEnabled = renderSizeHintDimensions != null;
+        if (renderSizeHintsEnabled) {
+            renderSizeHints.setRenderDimensions(renderSizeHintDimensions);
+        }
+
+        if (adaptiveCaptureController != null) {
+            adaptiveCaptureController.stop();
+        }
+        adaptiveCaptureController = adaptiveCaptureFormat ? createAdaptiveCaptureController(captureFormat) : null;
+
+        // Share your microphone, reusing the track of a local preview
+        if (localAudioTrack == null) {
+            localAudioTrack = LocalAudioTrack.create(getContext(), enableAudio);
+        } else {
+            localAudioTrack.enable(enableAudio);
+        }
+
+        // Create the local data tracks, they are published with the connect options
+        releaseLocalDataTracks();
+        if (dataTrackOptions.isEmpty()) {
+            addLocalDataTrack(LocalDataTrack.create(getContext()), null);
+        } else {
+            for (int i = 0; i < dataTrackOptions.size(); i++) {
+                addLocalDataTrack(
+                        LocalDataTrack.create(getContext(), dataTrackOptions.get(i)),
+                        i < dataTrackSenderConfigs.size() ? dataTrackSenderConfigs.get(i) : null);
+            }
+        }
 
         if (cameraCapturer == null && enableVideo) {
             boolean createVideoStatus = createLocalVideo(enableVideo, cameraType);
@@ -469,9 +870,29 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                 // No need to connect to room if video creation failed
                 return;
             }
+        } else if (enableVideo && localVideoTrack != null) {
+            // Warmed up by startLocalPreview
+            isVideoEnabled = true;
+            localVideoTrack.enable(true);
+            VideoFormat format = buildVideoFormat();
+            if (previewFormat != null && !isSameVideoFormat(previewFormat, format)) {
+                cameraCapturer.changeCaptureFormat(format.dimensions.width, format.dimensions.height, format.framerate);
+            }
+            // The preview may have been started on the other camera
+            String cameraId = CustomTwilioVideoView.FRONT_CAMERA_TYPE.equals(cameraType) ? frontFacingDevice
+                    : CustomTwilioVideoView.BACK_CAMERA_TYPE.equals(cameraType) ? backFacingDevice : null;
+            String currentCameraId = getCameraId();
+            if (cameraId != null && currentCameraId != null && !cameraId.equals(currentCameraId)) {
+                switchCameraTo(cameraId);
+            }
         } else {
             isVideoEnabled = false;
+            if (!enableVideo && previewFormat != null) {
+                // A preview was started but this call is audio only
+                releaseLocalVideo();
+            }
         }
+        previewFormat = null;
 
         setAudioFocus(enableAudio);
         connectToRoom();
@@ -495,35 +916,21 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             connectOptionsBuilder.videoTracks(Collections.singletonList(localVideoTrack));
         }
 
-        //LocalDataTrack localDataTrack = LocalDataTrack.create(getContext());
-
-        if (localDataTrack != null) {
-            connectOptionsBuilder.dataTracks(Collections.singletonList(localDataTrack));
+        if (!localDataTracks.isEmpty()) {
+            connectOptionsBuilder.dataTracks(new ArrayList<>(localDataTracks.values()));
         }
 
-        // H264 Codec Support Detection: https://www.twilio.com/docs/video/managing-codecs
-        HardwareVideoEncoderFactory hardwareVideoEncoderFactory = new HardwareVideoEncoderFactory(null, true, true);
-        HardwareVideoDecoderFactory hardwareVideoDecoderFactory = new HardwareVideoDecoderFactory(null);
-
-        boolean h264EncoderSupported = false;
-        for (VideoCodecInfo videoCodecInfo : hardwareVideoEncoderFactory.getSupportedCodecs()) {
-            if (videoCodecInfo.name.equalsIgnoreCase("h264")) {
-                h264EncoderSupported = true;
-                break;
-            }
-        }
-        boolean h264DecoderSupported = false;
-        for (VideoCodecInfo videoCodecInfo : hardwareVideoDecoderFactory.getSupportedCodecs()) {
-            if (videoCodecInfo.name.equalsIgnoreCase("h264")) {
-                h264DecoderSupported = true;
-                break;
-            }
-        }
-
-        boolean isH264Supported = h264EncoderSupported && h264DecoderSupported;
+        CodecCapabilityCache.Result codecCapabilities = CodecCapabilityCache.get(getContext());
+        boolean isH264Supported = codecCapabilities.isH264Supported;
 
         Log.d("RNTwilioVideo", "H264 supported by hardware: " + isH264Supported);
 
+        WritableMap probeEvent = new WritableNativeMap();
+        probeEvent.putBoolean("cacheHit", codecCapabilities.isCacheHit());
+        probeEvent.putString("source", codecCapabilities.source);
+        probeEvent.putDouble("durationMs", codecCapabilities.durationMs);
+        pushEvent(CustomTwilioVideoView.this, ON_CODEC_PROBE_COMPLETED, probeEvent);
+
         WritableArray supportedCodecs = new WritableNativeArray();
 
         VideoCodec videoCodec =  new Vp8Codec();
@@ -543,6 +950,14 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
         connectOptionsBuilder.preferVideoCodecs(Collections.singletonList(videoCodec));
 
+        if (encodingParameters != null) {
+            connectOptionsBuilder.encodingParameters(encodingParameters);
+        }
+
+        if (bandwidthProfileOptions != null) {
+            connectOptionsBuilder.bandwidthProfile(bandwidthProfileOptions);
+        }
+
         connectOptionsBuilder.enableDominantSpeaker(this.dominantSpeakerEnabled);
 
         if (enableNetworkQualityReporting) {
@@ -651,6 +1066,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         if (room != null) {
             room.disconnect();
         }
+        if (adaptiveCaptureController != null) {
+            adaptiveCaptureController.stop();
+        }
+        cancelLocalVideoSuspend();
         if (localAudioTrack != null) {
             localAudioTrack.release();
             localAudioTrack = null;
@@ -661,22 +1080,286 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             localVideoTrack = null;
             audioManager.stopBluetoothSco();
         }
+        releaseLocalDataTracks();
         setAudioFocus(false);
         if (cameraCapturer != null) {
-            cameraCapturer.stopCapture();
+            stopCameraCapture();
             cameraCapturer = null;
         }
     }
 
     // ===== SEND STRING ON DATA TRACK ======================================================================
     public void sendString(String message) {
+        sendString(null, message);
+    }
+
+    /*
+     * Send on the named data track, or the first one when channel is null.
+     */
+    public void sendString(String channel, final String message) {
+        final DataTrackSender sender = getDataTrackSender(channel);
+        if (sender != null) {
+            dataTrackMessageThreadHandler.post(() -> sender.send(message));
+            return;
+        }
+        LocalDataTrack localDataTrack = getLocalDataTrack(channel);
         if (localDataTrack != null) {
             localDataTrack.send(message);
         }
     }
 
+    private LocalDataTrack getLocalDataTrack(String channel) {
+        String name = channel != null ? channel : defaultDataTrackName;
+        return name != null ? localDataTracks.get(name) : null;
+    }
+
+    private DataTrackSender getDataTrackSender(String channel) {
+        String name = channel != null ? channel : defaultDataTrackName;
+        return name != null ? dataTrackSenders.get(name) : null;
+    }
+
+    private void addLocalDataTrack(final LocalDataTrack localDataTrack, DataTrackSender.Config senderConfig) {
+        if (localDataTrack == null) {
+            return;
+        }
+        String channel = DataTrackFrames.channelName(localDataTrack.getName());
+        if (localDataTracks.containsKey(channel)) {
+            // Channels are addressed by name, the first track keeps it
+            Log.w(TAG, "Dropping data track with duplicate name " + channel);
+            localDataTrack.release();
+            return;
+        }
+        if (defaultDataTrackName == null) {
+            defaultDataTrackName = channel;
+        }
+        localDataTracks.put(channel, localDataTrack);
+
+        if (senderConfig != null) {
+            dataTrackSenders.put(channel, new DataTrackSender(
+                    senderConfig,
+                    dataTrackMessageThreadHandler,
+                    new DataTrackSender.Transport() {
+                        @Override
+                        public void send(String message) {
+                            localDataTrack.send(message);
+                        }
+
+                        @Override
+                        public void send(ByteBuffer payload) {
+                            localDataTrack.send(payload);
+                        }
+                    }));
+        }
+    }
+
+    /*
+     * The tracks are forgotten right away, so nothing new is sent on them, and stopped and released
+     * on the data track message thread after the sends already posted there.
+     */
+    private void releaseLocalDataTracks() {
+        final List<DataTrackSender> senders = new ArrayList<>(dataTrackSenders.values());
+        final List<LocalDataTrack> tracks = new ArrayList<>(localDataTracks.values());
+        dataTrackSenders.clear();
+        localDataTracks.clear();
+        defaultDataTrackName = null;
+        if (senders.isEmpty() && tracks.isEmpty()) {
+            return;
+        }
+        dataTrackMessageThreadHandler.post(() -> {
+            for (DataTrackSender sender : senders) {
+                sender.stop();
+            }
+            for (LocalDataTrack localDataTrack : tracks) {
+                localDataTrack.release();
+            }
+        });
+    }
+
+    /*
+     * Report the send pipeline counters of every data track configured with one.
+     */
+    public void getDataTrackSenderStats() {
+        dataTrackMessageThreadHandler.post(() -> {
+            WritableMap event = new WritableNativeMap();
+            for (Map.Entry<String, DataTrackSender> entry : dataTrackSenders.entrySet()) {
+                DataTrackSender sender = entry.getValue();
+                WritableMap counters = new WritableNativeMap();
+                counters.putDouble("messagesSent", sender.getMessagesSent());
+                counters.putDouble("messagesAggregated", sender.getMessagesAggregated());
+                counters.putDouble("messagesDropped", sender.getMessagesDropped());
+                counters.putDouble("framesSent", sender.getFramesSent());
+                counters.putInt("queueDepth", sender.getQueueDepth());
+                event.putMap(entry.getKey(), counters);
+            }
+            pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_SENDER_STATS, event);
+        });
+    }
+
+    // ===== SEND BINARY ON DATA TRACK ======================================================================
+    /*
+     * Base64 only exists at the bridge edge, decode off the UI thread and send the raw bytes.
+     */
+    public void sendBinary(final String channel, final String base64Payload) {
+        if (getLocalDataTrack(channel) == null) {
+            return;
+        }
+        dataTrackMessageThreadHandler.post(() -> {
+            byte[] bytes = decodeBase64(base64Payload);
+            if (bytes != null) {
+                sendBinary(channel, ByteBuffer.wrap(bytes));
+            }
+        });
+    }
+
+    /*
+     * Payloads come from JS unchecked, malformed base64 is logged and dropped instead of thrown
+     * on the data track message thread.
+     */
+    private static byte[] decodeBase64(String base64Payload) {
+        try {
+            return Base64.decode(base64Payload, Base64.NO_WRAP);
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Dropping data track payload that is not valid base64", e);
+            return null;
+        }
+    }
+
+    public void sendBinary(String channel, final ByteBuffer payload) {
+        final DataTrackSender sender = getDataTrackSender(channel);
+        if (sender != null) {
+            dataTrackMessageThreadHandler.post(() -> sender.send(payload));
+            return;
+        }
+        LocalDataTrack localDataTrack = getLocalDataTrack(channel);
+        if (localDataTrack != null) {
+            localDataTrack.send(payload);
+        }
+    }
+
+    // ===== SEND LARGE PAYLOAD ON DATA TRACK =======================================================
+    /*
+     * Split a payload of any size into chunks that fit a data-track message. Progress is reported
+     * as each chunk is handed to the track. Chunks need a framed track to be recognised and a
+     * reliable one to arrive, other tracks fail the transfer right away.
+     */
+    public void sendLargeMessage(final String channel, final String payload, final boolean binary, final boolean compress) {
+        LocalDataTrack localDataTrack = getLocalDataTrack(channel);
+        if (localDataTrack == null) {
+            return;
+        }
+        final DataTrackSender sender = getDataTrackSender(channel);
+        final String channelName = channel != null ? channel : defaultDataTrackName;
+        final int messageId = nextChunkedMessageId++;
+        if (sender == null || !sender.isFramed()) {
+            pushSendTransferFailed(channelName, messageId, "notFramed");
+            return;
+        }
+        if (sender.isLossy() || !localDataTrack.isReliable()) {
+            pushSendTransferFailed(channelName, messageId, "unreliable");
+            return;
+        }
+        dataTrackMessageThreadHandler.post(() -> {
+            byte[] bytes = binary ? decodeBase64(payload) : payload.getBytes(DataTrackFrames.UTF_8);
+            if (bytes == null) {
+                pushSendTransferFailed(channelName, messageId, "corrupt");
+                return;
+            }
+            byte flags = binary ? DataTrackChunks.FLAG_BINARY : 0;
+            if (compress) {
+                byte[] deflated = DataTrackChunks.deflate(bytes);
+                if (deflated.length < bytes.length) {
+                    bytes = deflated;
+                    flags |= DataTrackChunks.FLAG_DEFLATE;
+                }
+            }
+
+            final int totalBytes = bytes.length;
+            int chunkCount = DataTrackChunks.chunkCount(totalBytes);
+            for (int sequence = 0; sequence < chunkCount; sequence++) {
+                final int bytesTransferred = Math.min(totalBytes, (sequence + 1) * DataTrackChunks.CHUNK_PAYLOAD_BYTES);
+                sender.sendChunk(DataTrackChunks.chunk(bytes, flags, messageId, sequence), () -> {
+                    WritableMap event = new WritableNativeMap();
+                    event.putString("direction", "send");
+                    event.putInt("messageId", messageId);
+                    event.putString("channel", channelName);
+                    event.putInt("bytesTransferred", bytesTransferred);
+                    event.putInt("totalBytes", totalBytes);
+                    pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_TRANSFER_PROGRESS, event);
+                });
+            }
+        });
+    }
+
+    private void pushSendTransferFailed(String channel, int messageId, String reason) {
+        WritableMap event = new WritableNativeMap();
+        event.putString("direction", "send");
+        event.putInt("messageId", messageId);
+        event.putString("channel", channel);
+        event.putString("reason", reason);
+        pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_TRANSFER_FAILED, event);
+    }
+
+    private DataTrackReassembler.Listener dataTrackReassemblerListener() {
+        return new DataTrackReassembler.Listener() {
+            @Override
+            public void onProgress(Object source, int messageId, int bytesReceived, int totalBytes) {
+                WritableMap event = buildDataTrackTransferEvent((RemoteDataTrack) source, messageId);
+                event.putInt("bytesTransferred", bytesReceived);
+                event.putInt("totalBytes", totalBytes);
+                pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_TRANSFER_PROGRESS, event);
+            }
+
+            @Override
+            public void onComplete(Object source, int messageId, byte[] payload, boolean binary) {
+                RemoteDataTrack remoteDataTrack = (RemoteDataTrack) source;
+                RemoteParticipant participant = dataTrackRemoteParticipantMap.get(remoteDataTrack);
+                if (binary) {
+                    deliverDataTrackMessage(remoteDataTrack, participant, ByteBuffer.wrap(payload));
+                } else {
+                    deliverDataTrackMessage(remoteDataTrack, participant, new String(payload, DataTrackFrames.UTF_8));
+                }
+            }
+
+            @Override
+            public void onFailed(Object source, int messageId, String reason) {
+                WritableMap event = buildDataTrackTransferEvent((RemoteDataTrack) source, messageId);
+                event.putString("reason", reason);
+                pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_TRANSFER_FAILED, event);
+            }
+        };
+    }
+
+    private WritableMap buildDataTrackTransferEvent(RemoteDataTrack remoteDataTrack, int messageId) {
+        WritableMap event = new WritableNativeMap();
+        event.putString("direction", "receive");
+        event.putInt("messageId", messageId);
+        putDataTrackSource(event, remoteDataTrack, dataTrackRemoteParticipantMap.get(remoteDataTrack));
+        return event;
+    }
+
     private static boolean isCurrentCameraSourceBackFacing() {
-        return cameraCapturer != null && cameraCapturer.getCameraId() == backFacingDevice;
+        return backFacingDevice != null && backFacingDevice.equals(getCameraId());
+    }
+
+    private static String getCameraId() {
+        if (cameraCapturer instanceof Camera2Capturer) {
+            return ((Camera2Capturer) cameraCapturer).getCameraId();
+        }
+        if (cameraCapturer instanceof CameraCapturer) {
+            return ((CameraCapturer) cameraCapturer).getCameraId();
+        }
+        return null;
+    }
+
+    /*
+     * Both capturers switch in place, the track and its publication are kept.
+     */
+    private static void switchCameraTo(String cameraId) {
+        if (cameraCapturer instanceof Camera2Capturer) {
+            ((Camera2Capturer) cameraCapturer).switchCamera(cameraId);
+        } else if (cameraCapturer instanceof CameraCapturer) {
+            ((CameraCapturer) cameraCapturer).switchCamera(cameraId);
+        }
     }
 
     // ===== BUTTON LISTENERS ======================================================================
@@ -693,10 +1376,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         if (cameraCapturer != null) {
             final boolean isBackCamera = isCurrentCameraSourceBackFacing();
             if (frontFacingDevice != null && (isBackCamera || backFacingDevice == null)) {
-                cameraCapturer.switchCamera(frontFacingDevice);
+                switchCameraTo(frontFacingDevice);
                 cameraType = CustomTwilioVideoView.FRONT_CAMERA_TYPE;
             } else {
-                cameraCapturer.switchCamera(backFacingDevice);
+                switchCameraTo(backFacingDevice);
                 cameraType = CustomTwilioVideoView.BACK_CAMERA_TYPE;
             }
         }
@@ -774,6 +1457,56 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         }
     }
 
+    /*
+     * Change the maximum send bitrates (kbps, 0 for no limit) while connected.
+     */
+    public void setEncodingParameters(EncodingParameters encodingParameters) {
+        this.encodingParameters = encodingParameters;
+        if (localParticipant != null) {
+            localParticipant.setEncodingParameters(encodingParameters);
+        }
+    }
+
+    /*
+     * Set the subscriber priority of a remote video track, null restores the publisher priority.
+     */
+    public void setRemoteTrackPriority(String trackSid, TrackPriority priority) {
+        // An explicit priority wins over the render size hint until it is cleared with null
+        if (priority != null) {
+            pinnedTrackPriorities.add(trackSid);
+        } else {
+            pinnedTrackPriorities.remove(trackSid);
+            if (renderSizeHintsEnabled) {
+                priority = renderSizeHints.getPriority(trackSid);
+            }
+        }
+        RemoteVideoTrack track = remoteVideoTracks.get(trackSid);
+        if (track != null) {
+            track.setPriority(priority);
+        }
+    }
+
+    /*
+     * Set the publish priority of one of our local tracks.
+     */
+    public void setLocalTrackPriority(String trackSid, TrackPriority priority) {
+        if (localParticipant == null) {
+            return;
+        }
+        for (LocalVideoTrackPublication publication : localParticipant.getLocalVideoTracks()) {
+            if (publication.getTrackSid().equals(trackSid)) {
+                publication.setPriority(priority);
+                return;
+            }
+        }
+        for (LocalAudioTrackPublication publication : localParticipant.getLocalAudioTracks()) {
+            if (publication.getTrackSid().equals(trackSid)) {
+                publication.setPriority(priority);
+                return;
+            }
+        }
+    }
+
     public void publishLocalAudio(boolean enabled) {
         if (localParticipant != null && localAudioTrack != null) {
             if (enabled) {
@@ -785,7 +1518,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     }
 
 
-    private void convertBaseTrackStats(BaseTrackStats bs, WritableMap result) {
+    private void convertBaseTrackStats(BaseTrackStats bs, WritableMap result, int fields) {
+        if (!StatsFields.has(fields, StatsFields.BASE)) {
+            return;
+        }
         result.putString("codec", bs.codec);
         result.putInt("packetsLost", bs.packetsLost);
         result.putString("ssrc", bs.ssrc);
@@ -793,60 +1529,126 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         result.putString("trackSid", bs.trackSid);
     }
 
-    private void convertLocalTrackStats(LocalTrackStats ts, WritableMap result) {
-        result.putDouble("bytesSent", ts.bytesSent);
-        result.putInt("packetsSent", ts.packetsSent);
-        result.putDouble("roundTripTime", ts.roundTripTime);
+    private void convertLocalTrackStats(LocalTrackStats ts, WritableMap result, int fields) {
+        if (StatsFields.has(fields, StatsFields.TRANSPORT)) {
+            result.putDouble("bytesSent", ts.bytesSent);
+            result.putInt("packetsSent", ts.packetsSent);
+        }
+        if (StatsFields.has(fields, StatsFields.ROUND_TRIP_TIME)) {
+            result.putDouble("roundTripTime", ts.roundTripTime);
+        }
     }
 
-    private void convertRemoteTrackStats(RemoteTrackStats ts, WritableMap result) {
-        result.putDouble("bytesReceived", ts.bytesReceived);
-        result.putInt("packetsReceived", ts.packetsReceived);
+    private void convertRemoteTrackStats(RemoteTrackStats ts, WritableMap result, int fields) {
+        if (StatsFields.has(fields, StatsFields.TRANSPORT)) {
+            result.putDouble("bytesReceived", ts.bytesReceived);
+            result.putInt("packetsReceived", ts.packetsReceived);
+        }
     }
 
-    private WritableMap convertAudioTrackStats(RemoteAudioTrackStats as) {
+    private static WritableMap convertDimensions(VideoDimensions videoDimensions) {
+        WritableMap dimensions = new WritableNativeMap();
+        dimensions.putInt("height", videoDimensions.height);
+        dimensions.putInt("width", videoDimensions.width);
+        return dimensions;
+    }
+
+    private WritableMap convertAudioTrackStats(RemoteAudioTrackStats as, int fields) {
         WritableMap result = new WritableNativeMap();
-        result.putInt("audioLevel", as.audioLevel);
-        result.putInt("jitter", as.jitter);
-        convertBaseTrackStats(as, result);
-        convertRemoteTrackStats(as, result);
+        if (StatsFields.has(fields, StatsFields.AUDIO)) {
+            result.putInt("audioLevel", as.audioLevel);
+            result.putInt("jitter", as.jitter);
+        }
+        convertBaseTrackStats(as, result, fields);
+        convertRemoteTrackStats(as, result, fields);
         return result;
     }
 
-    private WritableMap convertLocalAudioTrackStats(LocalAudioTrackStats as) {
+    private WritableMap convertLocalAudioTrackStats(LocalAudioTrackStats as, int fields) {
         WritableMap result = new WritableNativeMap();
-        result.putInt("audioLevel", as.audioLevel);
-        result.putInt("jitter", as.jitter);
-        convertBaseTrackStats(as, result);
-        convertLocalTrackStats(as, result);
+        if (StatsFields.has(fields, StatsFields.AUDIO)) {
+            result.putInt("audioLevel", as.audioLevel);
+            result.putInt("jitter", as.jitter);
+        }
+        convertBaseTrackStats(as, result, fields);
+        convertLocalTrackStats(as, result, fields);
         return result;
     }
 
-    private WritableMap convertVideoTrackStats(RemoteVideoTrackStats vs) {
+    private WritableMap convertVideoTrackStats(RemoteVideoTrackStats vs, int fields) {
         WritableMap result = new WritableNativeMap();
-        WritableMap dimensions = new WritableNativeMap();
-        dimensions.putInt("height", vs.dimensions.height);
-        dimensions.putInt("width", vs.dimensions.width);
-        result.putMap("dimensions", dimensions);
-        result.putInt("frameRate", vs.frameRate);
-        convertBaseTrackStats(vs, result);
-        convertRemoteTrackStats(vs, result);
+        if (StatsFields.has(fields, StatsFields.DIMENSIONS)) {
+            result.putMap("dimensions", convertDimensions(vs.dimensions));
+            result.putInt("frameRate", vs.frameRate);
+        }
+        convertBaseTrackStats(vs, result, fields);
+        convertRemoteTrackStats(vs, result, fields);
         return result;
     }
 
-    private WritableMap convertLocalVideoTrackStats(LocalVideoTrackStats vs) {
+    private WritableMap convertLocalVideoTrackStats(LocalVideoTrackStats vs, int fields) {
         WritableMap result = new WritableNativeMap();
-        WritableMap dimensions = new WritableNativeMap();
-        dimensions.putInt("height", vs.dimensions.height);
-        dimensions.putInt("width", vs.dimensions.width);
-        result.putMap("dimensions", dimensions);
-        result.putInt("frameRate", vs.frameRate);
-        convertBaseTrackStats(vs, result);
-        convertLocalTrackStats(vs, result);
+        if (StatsFields.has(fields, StatsFields.DIMENSIONS)) {
+            result.putMap("dimensions", convertDimensions(vs.dimensions));
+            result.putInt("frameRate", vs.frameRate);
+        }
+        if (StatsFields.has(fields, StatsFields.CAPTURE)) {
+            // Capture above the sent dimensions points at CPU or bandwidth adaptation by the encoder
+            result.putMap("captureDimensions", convertDimensions(vs.captureDimensions));
+            result.putInt("capturedFrameRate", vs.capturedFrameRate);
+        }
+        convertBaseTrackStats(vs, result, fields);
+        convertLocalTrackStats(vs, result, fields);
+        return result;
+    }
+
+    private WritableMap convertIceCandidatePairStats(IceCandidatePairStats ps) {
+        WritableMap result = new WritableNativeMap();
+        result.putString("transportId", ps.transportId);
+        result.putString("localCandidateId", ps.localCandidateId);
+        result.putString("remoteCandidateId", ps.remoteCandidateId);
+        if (ps.state != null) {
+            result.putString("state", ps.state.name().toLowerCase(Locale.US));
+        }
+        result.putString("localCandidateIp", ps.localCandidateIp);
+        result.putString("remoteCandidateIp", ps.remoteCandidateIp);
+        result.putDouble("priority", ps.priority);
+        result.putBoolean("nominated", ps.nominated);
+        result.putBoolean("writeable", ps.writeable);
+        result.putBoolean("readable", ps.readable);
+        result.putBoolean("activeCandidatePair", ps.activeCandidatePair);
+        result.putDouble("bytesSent", ps.bytesSent);
+        result.putDouble("bytesReceived", ps.bytesReceived);
+        result.putDouble("totalRoundTripTime", ps.totalRoundTripTime);
+        result.putDouble("currentRoundTripTime", ps.currentRoundTripTime);
+        result.putDouble("availableOutgoingBitrate", ps.availableOutgoingBitrate);
+        result.putDouble("availableIncomingBitrate", ps.availableIncomingBitrate);
+        result.putString("relayProtocol", ps.relayProtocol);
+        return result;
+    }
+
+    private WritableMap convertIceCandidateStats(IceCandidateStats cs) {
+        WritableMap result = new WritableNativeMap();
+        result.putString("transportId", cs.transportId);
+        result.putBoolean("isRemote", cs.isRemote);
+        result.putString("ip", cs.ip);
+        result.putInt("port", cs.port);
+        result.putString("protocol", cs.protocol);
+        result.putString("candidateType", cs.candidateType);
+        result.putDouble("priority", cs.priority);
+        result.putString("url", cs.url);
+        result.putBoolean("deleted", cs.deleted);
         return result;
     }
 
     public void getStats() {
+        getStats(StatsFields.DEFAULT);
+    }
+
+    /*
+     * Report stats limited to the field groups of the StatsFields mask.
+     */
+    public void getStats(final int fields) {
         if (room != null) {
             room.getStats(new StatsListener() {
                 @Override
@@ -856,27 +1658,43 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                         WritableMap connectionStats = new WritableNativeMap();
                         WritableArray as = new WritableNativeArray();
                         for (RemoteAudioTrackStats s : sr.getRemoteAudioTrackStats()) {
-                            as.pushMap(convertAudioTrackStats(s));
+                            as.pushMap(convertAudioTrackStats(s, fields));
                         }
                         connectionStats.putArray("remoteAudioTrackStats", as);
 
                         WritableArray vs = new WritableNativeArray();
                         for (RemoteVideoTrackStats s : sr.getRemoteVideoTrackStats()) {
-                            vs.pushMap(convertVideoTrackStats(s));
+                            vs.pushMap(convertVideoTrackStats(s, fields));
                         }
                         connectionStats.putArray("remoteVideoTrackStats", vs);
 
                         WritableArray las = new WritableNativeArray();
                         for (LocalAudioTrackStats s : sr.getLocalAudioTrackStats()) {
-                            las.pushMap(convertLocalAudioTrackStats(s));
+                            las.pushMap(convertLocalAudioTrackStats(s, fields));
                         }
                         connectionStats.putArray("localAudioTrackStats", las);
 
                         WritableArray lvs = new WritableNativeArray();
                         for (LocalVideoTrackStats s : sr.getLocalVideoTrackStats()) {
-                            lvs.pushMap(convertLocalVideoTrackStats(s));
+                            lvs.pushMap(convertLocalVideoTrackStats(s, fields));
                         }
                         connectionStats.putArray("localVideoTrackStats", lvs);
+
+                        if (StatsFields.has(fields, StatsFields.CANDIDATE_PAIRS)) {
+                            WritableArray cps = new WritableNativeArray();
+                            for (IceCandidatePairStats s : sr.getIceCandidatePairStats()) {
+                                cps.pushMap(convertIceCandidatePairStats(s));
+                            }
+                            connectionStats.putArray("iceCandidatePairStats", cps);
+                        }
+
+                        if (StatsFields.has(fields, StatsFields.CANDIDATES)) {
+                            WritableArray cs = new WritableNativeArray();
+                            for (IceCandidateStats s : sr.getIceCandidateStats()) {
+                                cs.pushMap(convertIceCandidateStats(s));
+                            }
+                            connectionStats.putArray("iceCandidateStats", cs);
+                        }
                         event.putMap(sr.getPeerConnectionId(), connectionStats);
                     }
                     pushEvent(CustomTwilioVideoView.this, ON_STATS_RECEIVED, event);
@@ -885,6 +1703,233 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         }
     }
 
+    /*
+     * Drop captured frames, and with governCaptureFps also lower the camera frame rate, to keep
+     * frames from queueing up beyond config.targetLatencyMs. Metrics are emitted every
+     * config.intervalMs, the encoder signal needs setStatsSampling. A maxFps of 0 is the capture
+     * frame rate. Null turns it off.
+     */
+    public void setFrameGovernor(FrameGovernor.Config config, boolean governCaptureFps) {
+        handler.removeCallbacks(evaluateFrameGovernor);
+        restoreCaptureFps();
+        if (config != null) {
+            config.maxFps = config.maxFps > 0 ? config.maxFps : buildVideoFormat().framerate;
+            config.minFps = Math.max(1, Math.min(config.minFps, config.maxFps));
+            config.intervalMs = Math.max(100, config.intervalMs);
+        }
+        this.governCaptureFps = governCaptureFps;
+        frameGovernor = config == null ? null : new FrameGovernor(config);
+        localVideoProcessing.setGovernor(frameGovernor);
+        if (frameGovernor != null) {
+            lastGovernorEvaluationNanos = System.nanoTime();
+            handler.postDelayed(evaluateFrameGovernor, config.intervalMs);
+        }
+    }
+
+    private final Runnable evaluateFrameGovernor = new Runnable() {
+        @Override
+        public void run() {
+            if (frameGovernor == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            FrameGovernor.Metrics metrics = frameGovernor.evaluate(now - lastGovernorEvaluationNanos);
+            lastGovernorEvaluationNanos = now;
+            governCaptureFps(metrics.targetFps);
+
+            WritableMap event = new WritableNativeMap();
+            event.putString("decision", metrics.decision);
+            event.putDouble("targetFps", metrics.targetFps);
+            event.putDouble("admittedFps", metrics.admittedFps);
+            event.putDouble("framesCaptured", metrics.framesCaptured);
+            event.putDouble("framesDropped", metrics.framesDropped);
+            event.putDouble("processingMs", metrics.processingMs);
+            event.putDouble("queueDelayMs", metrics.queueDelayMs);
+            if (metrics.encoderFps != FrameGovernor.UNAVAILABLE) {
+                event.putDouble("encoderFps", metrics.encoderFps);
+            }
+            event.putDouble("estimatedLatencyMs", metrics.estimatedLatencyMs);
+            event.putInt("captureFps", governedCaptureFps > 0 ? governedCaptureFps : buildVideoFormat().framerate);
+            pushEvent(CustomTwilioVideoView.this, ON_FRAME_GOVERNOR_METRICS, event);
+
+            handler.postDelayed(this, frameGovernor.getConfig().intervalMs);
+        }
+    };
+
+    /*
+     * Reopening the camera at another rate briefly stalls capture, so the rate only follows the
+     * governor in steps of CAPTURE_FPS_STEP. The adaptive capture format owns the rate when on.
+     */
+    private void governCaptureFps(double targetFps) {
+        if (!governCaptureFps || cameraCapturer == null || adaptiveCaptureController != null) {
+            return;
+        }
+        VideoFormat format = buildVideoFormat();
+        int fps = Math.min(format.framerate, (int) Math.ceil(targetFps));
+        int current = governedCaptureFps > 0 ? governedCaptureFps : format.framerate;
+        if (fps == current || (Math.abs(fps - current) < CAPTURE_FPS_STEP && fps != format.framerate)) {
+            return;
+        }
+        governedCaptureFps = fps == format.framerate ? 0 : fps;
+        cameraCapturer.changeCaptureFormat(format.dimensions.width, format.dimensions.height, fps);
+    }
+
+    private void restoreCaptureFps() {
+        if (governedCaptureFps > 0 && cameraCapturer != null) {
+            VideoFormat format = buildVideoFormat();
+            cameraCapturer.changeCaptureFormat(format.dimensions.width, format.dimensions.height, format.framerate);
+        }
+        governedCaptureFps = 0;
+    }
+
+    /*
+     * Sample stats every intervalMs while connected and emit only the rates between samples.
+     * A positive historySize also keeps that many samples per track and metric for summaries.
+     */
+    public void setStatsSampling(boolean enabled, long intervalMs, boolean emitSamples, int historySize) {
+        statsSamplingIntervalMs = enabled ? Math.max(100, intervalMs) : 0;
+        emitStatsSamples = emitSamples;
+        if (historySize <= 0) {
+            statsHistory = null;
+        } else if (statsHistory == null || statsHistory.getCapacity() != historySize) {
+            statsHistory = new StatsHistory(historySize);
+        }
+        if (statsSamplingIntervalMs > 0 && room != null && room.getState() == Room.State.CONNECTED) {
+            statsSampler.start(room, statsSamplingIntervalMs);
+        } else {
+            statsSampler.stop();
+        }
+    }
+
+    private void onStatsSample(List<StatsSampler.TrackRates> rates) {
+        if (frameGovernor != null) {
+            for (StatsSampler.TrackRates r : rates) {
+                if (StatsSampler.KIND_VIDEO.equals(r.kind) && StatsSampler.DIRECTION_SEND.equals(r.direction)
+                        && r.frameRate != StatsSampler.UNAVAILABLE) {
+                    frameGovernor.onEncoderFrameRate(r.frameRate);
+                }
+            }
+        }
+        if (statsHistory != null) {
+            for (StatsSampler.TrackRates r : rates) {
+                statsHistory.record(r);
+            }
+        }
+        if (!emitStatsSamples) {
+            return;
+        }
+        WritableArray tracks = new WritableNativeArray();
+        for (StatsSampler.TrackRates r : rates) {
+            WritableMap track = new WritableNativeMap();
+            track.putString("trackSid", r.trackSid);
+            track.putString("kind", r.kind);
+            track.putString("direction", r.direction);
+            track.putDouble("intervalMs", r.intervalMs);
+            track.putDouble("bitrate", r.bitrateKbps);
+            track.putDouble("packetLoss", r.packetLossPercent);
+            if (r.frameRate != StatsSampler.UNAVAILABLE) {
+                track.putInt("frameRate", r.frameRate);
+            }
+            if (r.roundTripTimeMs != StatsSampler.UNAVAILABLE) {
+                track.putDouble("roundTripTime", r.roundTripTimeMs);
+                track.putDouble("roundTripTimeDelta", r.roundTripTimeDeltaMs);
+            }
+            if (r.jitter != StatsSampler.UNAVAILABLE) {
+                track.putInt("jitter", r.jitter);
+                track.putInt("jitterDelta", r.jitterDelta);
+            }
+            tracks.pushMap(track);
+        }
+        WritableMap event = new WritableNativeMap();
+        event.putArray("tracks", tracks);
+        pushEvent(CustomTwilioVideoView.this, ON_STATS_SAMPLE, event);
+    }
+
+    public void setVideoProcessorOrder(List<String> names) {
+        localVideoProcessing.setOrder(names);
+    }
+
+    /*
+     * Per-frame processing time of each registered processor since the previous call.
+     */
+    public void getVideoProcessorStats() {
+        WritableArray stages = new WritableNativeArray();
+        for (FrameProcessingPipeline.StageStats stats : localVideoProcessing.getStats(true)) {
+            WritableMap stage = new WritableNativeMap();
+            stage.putString("name", stats.name);
+            stage.putBoolean("active", stats.active);
+            stage.putDouble("frames", stats.frames);
+            stage.putDouble("averageMs", stats.averageMs);
+            stage.putDouble("maxMs", stats.maxMs);
+            stage.putDouble("lastMs", stats.lastMs);
+            stages.pushMap(stage);
+        }
+        WritableArray order = new WritableNativeArray();
+        for (String name : localVideoProcessing.getOrder()) {
+            order.pushString(name);
+        }
+        WritableMap event = new WritableNativeMap();
+        event.putArray("stages", stages);
+        event.putArray("order", order);
+        pushEvent(CustomTwilioVideoView.this, ON_VIDEO_PROCESSOR_STATS, event);
+    }
+
+    public void getStatsSummary() {
+        if (statsHistory != null) {
+            pushStatsSummary();
+        }
+    }
+
+    private void pushStatsSummary() {
+        StatsHistory.Summary summary = new StatsHistory.Summary();
+        WritableArray tracks = new WritableNativeArray();
+        for (StatsHistory.TrackHistory history : statsHistory.getTracks()) {
+            WritableMap metrics = new WritableNativeMap();
+            for (int metric = 0; metric < StatsHistory.METRIC_NAMES.length; metric++) {
+                if (!statsHistory.summarize(history, metric, summary)) {
+                    continue;
+                }
+                WritableMap values = new WritableNativeMap();
+                values.putInt("count", summary.count);
+                values.putDouble("min", summary.min);
+                values.putDouble("max", summary.max);
+                values.putDouble("mean", summary.mean);
+                values.putDouble("p50", summary.p50);
+                values.putDouble("p95", summary.p95);
+                metrics.putMap(StatsHistory.METRIC_NAMES[metric], values);
+            }
+            WritableMap track = new WritableNativeMap();
+            track.putString("trackSid", history.trackSid);
+            track.putString("kind", history.kind);
+            track.putString("direction", history.direction);
+            track.putMap("metrics", metrics);
+            tracks.pushMap(track);
+        }
+        WritableMap event = new WritableNativeMap();
+        event.putArray("tracks", tracks);
+        pushEvent(CustomTwilioVideoView.this, ON_STATS_SUMMARY, event);
+    }
+
+    private void onTrackTimings(MediaTimeline timeline, MediaTimeline.TrackTimings timings) {
+        long start = timeline.getConnectStartMs();
+        WritableMap event = new WritableNativeMap();
+        event.putString("trackSid", timings.trackSid);
+        event.putString("kind", timings.kind);
+        // Monotonic clock, the other timings are milliseconds since connect started
+        event.putDouble("connectStart", start);
+        putTiming(event, "connected", start, timeline.getConnectedMs());
+        putTiming(event, "subscribed", start, timings.subscribedMs);
+        putTiming(event, "sinkAttached", start, timings.sinkAttachedMs);
+        putTiming(event, "firstFrame", start, timings.firstFrameMs);
+        pushEvent(CustomTwilioVideoView.this, ON_MEDIA_TIMINGS, event);
+    }
+
+    private static void putTiming(WritableMap event, String name, long start, long timestamp) {
+        if (start != MediaTimeline.UNSET && timestamp != MediaTimeline.UNSET) {
+            event.putDouble(name, timestamp - start);
+        }
+    }
+
     public void disableOpenSLES() {
         WebRtcAudioManager.setBlacklistDeviceForOpenSLESUsage(true);
     }
@@ -905,6 +1950,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                     themedReactContext.getCurrentActivity().setVolumeControlStream(AudioManager.STREAM_VOICE_CALL);
                 }
 
+                mediaTimeline.markConnected();
                 localParticipant = room.getLocalParticipant();
                 localParticipant.setListener(localListener());
 
@@ -923,9 +1969,12 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
                 pushEvent(CustomTwilioVideoView.this, ON_CONNECTED, event);
 
-
-                //There is not .publish it's publishTrack
-                localParticipant.publishTrack(localDataTrack);
+                if (adaptiveCaptureController != null) {
+                    adaptiveCaptureController.start();
+                }
+                if (statsSamplingIntervalMs > 0) {
+                    statsSampler.start(room, statsSamplingIntervalMs);
+                }
 
                 for (RemoteParticipant participant : participants) {
                     addParticipant(room, participant);
@@ -974,6 +2023,23 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                 localParticipant = null;
                 roomName = null;
                 accessToken = null;
+                clearRemoteVideoTracks();
+                mediaTimeline.clear();
+                dataTrackMessageThreadHandler.post(() -> {
+                    dataTrackReassembler.clear();
+                    if (dataTrackInbox != null) {
+                        dataTrackInbox.stop();
+                    }
+                });
+                if (adaptiveCaptureController != null) {
+                    adaptiveCaptureController.stop();
+                }
+                statsSampler.stop();
+                if (statsHistory != null && !statsHistory.isEmpty()) {
+                    // Post-call summary, the next call starts from an empty history
+                    pushStatsSummary();
+                    statsHistory.clear();
+                }
 
 
                 CustomTwilioVideoView.room = null;
@@ -1063,9 +2129,19 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         //participant.setListener(null);
     }
 
+    private void removeRemoteDataTrack(RemoteDataTrack remoteDataTrack) {
+        if (dataTrackInbox != null) {
+            // Deliver what is queued while the participant can still be resolved
+            dataTrackInbox.remove(remoteDataTrack);
+        }
+        dataTrackRemoteParticipantMap.remove(remoteDataTrack);
+        // Partial payloads can never complete once unsubscribed
+        dataTrackReassembler.remove(remoteDataTrack);
+    }
+
     private void addRemoteDataTrack(RemoteParticipant remoteParticipant, RemoteDataTrack remoteDataTrack) {
         dataTrackRemoteParticipantMap.put(remoteDataTrack, remoteParticipant);
-        remoteDataTrack.setListener(remoteDataTrackListener());
+        remoteDataTrack.setListener(remoteDataTrackListener(remoteParticipant));
     }
 
     // ====== MEDIA LISTENER =======================================================================
@@ -1077,10 +2153,12 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
                 audioTrack.enablePlayback(enableRemoteAudio);
                 WritableMap event = buildParticipantVideoEvent(participant, publication);
                 pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_ADDED_AUDIO_TRACK, event);
+                mediaTimeline.markSubscribed(publication.getTrackSid(), StatsSampler.KIND_AUDIO);
             }
 
             @Override
             public void onAudioTrackUnsubscribed(RemoteParticipant participant, RemoteAudioTrackPublication publication, RemoteAudioTrack audioTrack) {
+                mediaTimeline.markUnsubscribed(publication.getTrackSid());
                 WritableMap event = buildParticipantVideoEvent(participant, publication);
                 pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_REMOVED_AUDIO_TRACK, event);
             }
@@ -1110,6 +2188,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             public void onDataTrackUnsubscribed(RemoteParticipant remoteParticipant, RemoteDataTrackPublication remoteDataTrackPublication, RemoteDataTrack remoteDataTrack) {
                 WritableMap event = buildParticipantDataEvent(remoteParticipant, remoteDataTrackPublication);
                 pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_REMOVED_DATA_TRACK, event);
+                dataTrackMessageThreadHandler.post(() -> removeRemoteDataTrack(remoteDataTrack));
             }
 
             @Override
@@ -1129,11 +2208,15 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
             @Override
             public void onVideoTrackSubscribed(RemoteParticipant participant, RemoteVideoTrackPublication publication, RemoteVideoTrack videoTrack) {
+                mediaTimeline.markSubscribed(publication.getTrackSid(), StatsSampler.KIND_VIDEO);
+                indexRemoteVideoTrack(publication.getTrackSid(), videoTrack);
                 addParticipantVideo(participant, publication);
             }
 
             @Override
             public void onVideoTrackUnsubscribed(RemoteParticipant participant, RemoteVideoTrackPublication publication, RemoteVideoTrack videoTrack) {
+                mediaTimeline.markUnsubscribed(publication.getTrackSid());
+                unindexRemoteVideoTrack(publication.getTrackSid());
                 removeParticipantVideo(participant, publication);
             }
 
@@ -1226,6 +2309,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
             @Override
             public void onNetworkQualityLevelChanged(LocalParticipant localParticipant, NetworkQualityLevel networkQualityLevel) {
+                if (adaptiveCaptureController != null) {
+                    adaptiveCaptureController.setNetworkQualityLevel(networkQualityLevel.ordinal() - 1);
+                }
+
                 WritableMap event = new WritableNativeMap();
                 event.putMap("participant", buildParticipant(localParticipant));
                 event.putBoolean("isLocalUser", true);
@@ -1273,13 +2360,41 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         return event;
     }
 
-    private WritableMap buildDataTrackEvent(RemoteDataTrack remoteDataTrack, String message) {
+    private WritableMap buildDataTrackEvent(RemoteDataTrack remoteDataTrack, RemoteParticipant participant, String message) {
         WritableMap event = new WritableNativeMap();
         event.putString("message", message);
-        event.putString("trackSid", remoteDataTrack.getSid());
+        putDataTrackSource(event, remoteDataTrack, participant);
         return event;
     }
 
+    private WritableMap buildDataTrackBinaryEvent(RemoteDataTrack remoteDataTrack, RemoteParticipant participant, ByteBuffer payload) {
+        WritableMap event = new WritableNativeMap();
+        event.putString("payload", encodeBase64(payload));
+        putDataTrackSource(event, remoteDataTrack, participant);
+        return event;
+    }
+
+    private void putDataTrackSource(WritableMap event, RemoteDataTrack remoteDataTrack, RemoteParticipant participant) {
+        event.putString("trackSid", remoteDataTrack.getSid());
+        event.putString("channel", DataTrackFrames.channelName(remoteDataTrack.getName()));
+        if (participant != null) {
+            event.putMap("participant", buildParticipant(participant));
+        }
+    }
+
+    /*
+     * Encode straight from the backing array when there is one, copying only direct buffers.
+     */
+    private static String encodeBase64(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (payload.hasArray()) {
+            return Base64.encodeToString(payload.array(), payload.arrayOffset() + payload.position(), length, Base64.NO_WRAP);
+        }
+        byte[] bytes = new byte[length];
+        payload.duplicate().get(bytes);
+        return Base64.encodeToString(bytes, Base64.NO_WRAP);
+    }
+
     private void addParticipantVideo(Participant participant, RemoteVideoTrackPublication publication) {
         WritableMap event = this.buildParticipantVideoEvent(participant, publication);
         pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_ADDED_VIDEO_TRACK, event);
@@ -1292,28 +2407,233 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     // ===== EVENTS TO RN ==========================================================================
 
     void pushEvent(View view, String name, WritableMap data) {
+        EventBatcher batcher = eventBatcher;
+        if (batcher != null) {
+            batcher.enqueue(name, data);
+            return;
+        }
         eventEmitter.receiveEvent(view.getId(), name, data);
     }
 
+    /*
+     * Deliver events to JS as one onEventBatch array per flush interval instead of one bridge
+     * call each. Events listed in coalesceKeyPaths only keep their latest value per key, null
+     * uses the defaults for network quality and dominant speaker events.
+     */
+    public void setEventBatching(boolean enabled, long flushIntervalMs, Map<String, String> coalesceKeyPaths) {
+        if (!enabled) {
+            if (eventBatcher != null) {
+                eventBatcher.flush();
+                eventBatcher = null;
+            }
+            return;
+        }
+        if (eventBatcher == null) {
+            eventBatcher = new EventBatcher(new EventBatcher.Sink() {
+                @Override
+                public void onBatch(WritableMap batch) {
+                    eventEmitter.receiveEvent(getId(), ON_EVENT_BATCH, batch);
+                }
+            });
+        }
+        if (coalesceKeyPaths == null) {
+            coalesceKeyPaths = new HashMap<>();
+            coalesceKeyPaths.put(ON_NETWORK_QUALITY_LEVELS_CHANGED, "participant.sid");
+            coalesceKeyPaths.put(ON_DOMINANT_SPEAKER_CHANGED, "");
+        }
+        eventBatcher.setFlushIntervalMs(flushIntervalMs);
+        eventBatcher.setCoalesceKeyPaths(coalesceKeyPaths);
+    }
+
+    /*
+     * Route remote data-track messages through a bounded per-track queue, delivered as one
+     * onDataTrackMessageBatch per flush interval. Null restores one event per message.
+     */
+    public void setDataTrackInbound(final DataTrackInbox.Config config) {
+        dataTrackMessageThreadHandler.post(() -> {
+            if (dataTrackInbox != null) {
+                dataTrackInbox.stop();
+            }
+            dataTrackInbox = config == null ? null : new DataTrackInbox(config, dataTrackMessageThreadHandler, new DataTrackInbox.Sink() {
+                @Override
+                public void putSource(WritableMap entry, Object source) {
+                    RemoteDataTrack remoteDataTrack = (RemoteDataTrack) source;
+                    putDataTrackSource(entry, remoteDataTrack, dataTrackRemoteParticipantMap.get(remoteDataTrack));
+                }
+
+                @Override
+                public void onBatch(WritableMap batch) {
+                    pushEvent(CustomTwilioVideoView.this, ON_DATA_TRACK_MESSAGE_BATCH, batch);
+                }
+            });
+        });
+    }
+
     public static void registerPrimaryVideoView(PatchedVideoView v, String trackSid) {
-        if (room != null) {
+        RemoteVideoTrack track = trackSid == null ? null : remoteVideoTracks.get(trackSid);
+        unparkVideoSink(v);
+        if (track == null && trackSid != null && !trackSid.isEmpty()) {
+            // The track is not subscribed yet, attach the view once onVideoTrackSubscribed delivers it
+            parkVideoSink(v, trackSid);
+        }
 
-            for (RemoteParticipant participant : room.getRemoteParticipants()) {
-                for (RemoteVideoTrackPublication publication : participant.getRemoteVideoTracks()) {
-                    RemoteVideoTrack track = publication.getRemoteVideoTrack();
-                    if (track == null) {
-                        continue;
-                    }
-                    if (publication.getTrackSid().equals(trackSid)) {
-                        track.addSink(v);
-                    } else {
-                        track.removeSink(v);
-                    }
+        RemoteVideoTrack previousTrack = videoSinkTracks.get(v);
+        if (previousTrack == track) {
+            return;
+        }
+        if (previousTrack != null) {
+            detachVideoSink(v, previousTrack);
+            videoSinkTracks.remove(v);
+        }
+        if (track != null) {
+            attachVideoSink(v, trackSid, track);
+            videoSinkTracks.put(v, track);
+        }
+    }
+
+    private static void attachVideoSink(PatchedVideoView v, final String trackSid, RemoteVideoTrack track) {
+        if (pausedVideoSinks.contains(v)) {
+            // Added when the view becomes visible
+            return;
+        }
+        mediaTimeline.markSinkAttached(trackSid);
+        v.setListener(() -> mediaTimeline.markFirstFrame(trackSid));
+        v.resetListener();
+        track.addSink(v);
+    }
+
+    public static void unregisterPrimaryVideoView(PatchedVideoView v) {
+        renderSizeHints.remove(v);
+        unparkVideoSink(v);
+        RemoteVideoTrack track = videoSinkTracks.remove(v);
+        if (track != null) {
+            detachVideoSink(v, track);
+        }
+        pausedVideoSinks.remove(v);
+    }
+
+    private static void detachVideoSink(PatchedVideoView v, RemoteVideoTrack track) {
+        if (!pausedVideoSinks.contains(v)) {
+            track.removeSink(v);
+        }
+    }
+
+    private static void parkVideoSink(PatchedVideoView v, String trackSid) {
+        Set<PatchedVideoView> sinks = pendingVideoSinks.get(trackSid);
+        if (sinks == null) {
+            sinks = new HashSet<>();
+            pendingVideoSinks.put(trackSid, sinks);
+        }
+        sinks.add(v);
+        pendingVideoSinkTrackSids.put(v, trackSid);
+    }
+
+    private static void unparkVideoSink(PatchedVideoView v) {
+        String trackSid = pendingVideoSinkTrackSids.remove(v);
+        if (trackSid == null) {
+            return;
+        }
+        Set<PatchedVideoView> sinks = pendingVideoSinks.get(trackSid);
+        if (sinks != null) {
+            sinks.remove(v);
+            if (sinks.isEmpty()) {
+                pendingVideoSinks.remove(trackSid);
+            }
+        }
+    }
+
+    /*
+     * Report the laid-out size and visibility of a remote view so the track it shows can be
+     * subscribed at a matching priority.
+     */
+    public static void updateRemoteVideoViewSize(PatchedVideoView v, String trackSid, int width, int height, boolean visible) {
+        setRemoteVideoViewVisible(v, trackSid, visible);
+        renderSizeHints.update(v, trackSid, width, height, visible);
+    }
+
+    /*
+     * Stop delivering frames to a view nobody can see, so they are neither converted nor drawn.
+     * The view stays bound to its track and is added back, with a new first frame, once visible.
+     */
+    private static void setRemoteVideoViewVisible(PatchedVideoView v, String trackSid, boolean visible) {
+        if (visible == !pausedVideoSinks.contains(v)) {
+            return;
+        }
+        RemoteVideoTrack track = videoSinkTracks.get(v);
+        if (visible) {
+            pausedVideoSinks.remove(v);
+            if (track != null) {
+                attachVideoSink(v, trackSid, track);
+            }
+        } else {
+            if (track != null) {
+                track.removeSink(v);
+            }
+            pausedVideoSinks.add(v);
+        }
+    }
+
+    private static RenderSizeHints createRenderSizeHints() {
+        return new RenderSizeHints(new RenderSizeHints.Listener() {
+            @Override
+            public void onRenderHintChanged(String trackSid, TrackPriority priority, int width, int height) {
+                RemoteVideoTrack track = remoteVideoTracks.get(trackSid);
+                if (renderSizeHintsEnabled && track != null && !pinnedTrackPriorities.contains(trackSid)) {
+                    track.setPriority(priority);
                 }
             }
+        });
+    }
+
+    private static void indexRemoteVideoTrack(String trackSid, RemoteVideoTrack track) {
+        remoteVideoTracks.put(trackSid, track);
+
+        if (renderSizeHintsEnabled && !pinnedTrackPriorities.contains(trackSid)) {
+            TrackPriority priority = renderSizeHints.getPriority(trackSid);
+            if (priority != null) {
+                track.setPriority(priority);
+            }
+        }
+
+        Set<PatchedVideoView> sinks = pendingVideoSinks.remove(trackSid);
+        if (sinks == null) {
+            return;
+        }
+        for (PatchedVideoView v : sinks) {
+            pendingVideoSinkTrackSids.remove(v);
+            RemoteVideoTrack previousTrack = videoSinkTracks.put(v, track);
+            if (previousTrack != null) {
+                detachVideoSink(v, previousTrack);
+            }
+            attachVideoSink(v, trackSid, track);
         }
     }
 
+    private static void unindexRemoteVideoTrack(String trackSid) {
+        RemoteVideoTrack track = remoteVideoTracks.remove(trackSid);
+        if (track == null) {
+            return;
+        }
+        Iterator<Map.Entry<PatchedVideoView, RemoteVideoTrack>> iterator = videoSinkTracks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PatchedVideoView, RemoteVideoTrack> entry = iterator.next();
+            if (entry.getValue() == track) {
+                detachVideoSink(entry.getKey(), track);
+                iterator.remove();
+                // Keep the view waiting so it rebinds if the track is subscribed again
+                parkVideoSink(entry.getKey(), trackSid);
+            }
+        }
+    }
+
+    private static void clearRemoteVideoTracks() {
+        pinnedTrackPriorities.clear();
+        remoteVideoTracks.clear();
+        videoSinkTracks.clear();
+        pendingVideoSinks.clear();
+        pendingVideoSinkTrackSids.clear();
+    }
+
     public static void registerThumbnailVideoView(PatchedVideoView v) {
         thumbnailVideoView = v;
         if (localVideoTrack != null) {
@@ -1322,20 +2642,65 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         setThumbnailMirror();
     }
 
-    private RemoteDataTrack.Listener remoteDataTrackListener() {
+    /*
+     * One listener per remote data track, so every message is tagged with its channel and sender.
+     */
+    private RemoteDataTrack.Listener remoteDataTrackListener(final RemoteParticipant participant) {
         return new RemoteDataTrack.Listener() {
 
             @Override
-            public void onMessage(RemoteDataTrack remoteDataTrack, ByteBuffer byteBuffer) {
+            public void onMessage(final RemoteDataTrack remoteDataTrack, ByteBuffer byteBuffer) {
+                if (DataTrackFrames.isFramed(remoteDataTrack.getName()) && DataTrackFrames.isFrame(byteBuffer)) {
+                    // Framed by the sender, deliver each message on its own
+                    DataTrackFrames.unpack(byteBuffer, new DataTrackFrames.Receiver() {
+                        @Override
+                        public void onString(String message) {
+                            onMessage(remoteDataTrack, message);
+                        }
 
+                        @Override
+                        public void onBinary(ByteBuffer payload) {
+                            deliverDataTrackMessage(remoteDataTrack, participant, payload);
+                        }
+
+                        @Override
+                        public void onChunk(ByteBuffer chunk) {
+                            if (DataTrackChunks.isChunk(chunk)) {
+                                dataTrackReassembler.onChunk(remoteDataTrack, chunk);
+                            }
+                        }
+                    });
+                    return;
+                }
+                deliverDataTrackMessage(remoteDataTrack, participant, byteBuffer);
             }
 
 
             @Override
             public void onMessage(RemoteDataTrack remoteDataTrack, String message) {
-                WritableMap event = buildDataTrackEvent(remoteDataTrack, message);
-                pushEvent(CustomTwilioVideoView.this, ON_DATATRACK_MESSAGE_RECEIVED, event);
+                deliverDataTrackMessage(remoteDataTrack, participant, message);
             }
         };
     }
+
+    /*
+     * Queue the message when an inbound queue is configured, emit it right away otherwise.
+     */
+    private void deliverDataTrackMessage(RemoteDataTrack remoteDataTrack, RemoteParticipant participant, String message) {
+        if (dataTrackInbox != null) {
+            dataTrackInbox.add(remoteDataTrack, message);
+            return;
+        }
+        WritableMap event = buildDataTrackEvent(remoteDataTrack, participant, message);
+        pushEvent(CustomTwilioVideoView.this, ON_DATATRACK_MESSAGE_RECEIVED, event);
+    }
+
+    private void deliverDataTrackMessage(RemoteDataTrack remoteDataTrack, RemoteParticipant participant, ByteBuffer payload) {
+        if (dataTrackInbox != null) {
+            dataTrackInbox.add(remoteDataTrack, payload);
+            return;
+        }
+        WritableMap event = buildDataTrackBinaryEvent(remoteDataTrack, participant, payload);
+        pushEvent(CustomTwilioVideoView.this, ON_DATATRACK_BINARY_MESSAGE_RECEIVED, event);
+    }
 }
@@ -9,15 +9,31 @@
 package com.twiliorn.library;
 
 import android.support.annotation.Nullable;
+import android.util.Log;
 
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.annotations.ReactProp;
+import com.twilio.video.BandwidthProfileMode;
+import com.twilio.video.BandwidthProfileOptions;
+import com.twilio.video.DataTrackOptions;
+import com.twilio.video.EncodingParameters;
+import com.twilio.video.TrackPriority;
+import com.twilio.video.TrackSwitchOffMode;
+import com.twilio.video.VideoBandwidthProfileOptions;
+import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_AUDIO_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAMERA_SWITCHED;
@@ -42,9 +58,24 @@ import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_RECEIVE
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_NETWORK_QUALITY_LEVELS_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DOMINANT_SPEAKER_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CODEC_PROBE_COMPLETED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAPTURE_FORMAT_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_EVENT_BATCH;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATATRACK_BINARY_MESSAGE_RECEIVED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_SENDER_STATS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_TRANSFER_PROGRESS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_TRANSFER_FAILED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DATA_TRACK_MESSAGE_BATCH;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_SAMPLE;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_STATS_SUMMARY;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_MEDIA_TIMINGS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_LOCAL_VIDEO_LIFECYCLE;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_VIDEO_PROCESSOR_STATS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_FRAME_GOVERNOR_METRICS;
 
 public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilioVideoView> {
     public static final String REACT_CLASS = "RNCustomTwilioVideoView";
+    private static final String TAG = "CustomTwilioVideoViewManager";
 
     private static final int CONNECT_TO_ROOM = 1;
     private static final int DISCONNECT = 2;
@@ -60,6 +91,27 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
     private static final int SEND_STRING = 12;
     private static final int PUBLISH_VIDEO = 13;
     private static final int PUBLISH_AUDIO = 14;
+    private static final int SET_ENCODING_PARAMETERS = 15;
+    private static final int SET_REMOTE_TRACK_PRIORITY = 16;
+    private static final int SET_LOCAL_TRACK_PRIORITY = 17;
+    private static final int SET_EVENT_BATCHING = 18;
+    private static final int SEND_BINARY = 19;
+    private static final int GET_DATA_TRACK_SENDER_STATS = 20;
+    private static final int SEND_LARGE_MESSAGE = 21;
+    private static final int SET_DATA_TRACK_INBOUND = 22;
+    private static final int SET_STATS_SAMPLING = 23;
+    private static final int GET_STATS_SUMMARY = 24;
+    private static final int SET_BACKGROUND_VIDEO = 25;
+    private static final int START_LOCAL_PREVIEW = 26;
+    private static final int STOP_LOCAL_PREVIEW = 27;
+    private static final int SET_VIDEO_PROCESSOR_ORDER = 28;
+    private static final int GET_VIDEO_PROCESSOR_STATS = 29;
+    private static final int SET_FRAME_GOVERNOR = 30;
+
+    // Twilio CIF at 15 fps, the capture format used when none is given
+    private static final int DEFAULT_CAPTURE_WIDTH = 352;
+    private static final int DEFAULT_CAPTURE_HEIGHT = 288;
+    private static final int DEFAULT_CAPTURE_FRAME_RATE = 15;
 
     @Override
     public String getName() {
@@ -86,6 +138,7 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 String cameraType = args.getString(8);
                 ReadableMap encodingParameters = args.getMap(9);
                 boolean enableH264Codec = encodingParameters.hasKey("enableH264Codec") ? encodingParameters.getBoolean("enableH264Codec") : false;
+                boolean adaptiveCaptureFormat = encodingParameters.hasKey("adaptiveCaptureFormat") ? encodingParameters.getBoolean("adaptiveCaptureFormat") : false;
                 view.connectToRoomWrapper(
                     roomName,
                     accessToken,
@@ -96,7 +149,18 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                     dominantSpeakerEnabled,
                     maintainVideoTrackInBackground,
                     cameraType,
-                    enableH264Codec
+                    enableH264Codec,
+                    buildCaptureFormat(encodingParameters),
+                    adaptiveCaptureFormat,
+                    buildEncodingParameters(encodingParameters),
+                    args.size() > 10 ? buildBandwidthProfileOptions(args.getMap(10)) : null,
+                    args.size() > 10 ? buildRenderSizeHintDimensions(args.getMap(10)) : null,
+                    buildDataTrackOptionsList(
+                            args.size() > 11 ? args.getMap(11) : null,
+                            args.size() > 12 ? args.getArray(12) : null),
+                    buildDataTrackSenderConfigs(
+                            args.size() > 11 ? args.getMap(11) : null,
+                            args.size() > 12 ? args.getArray(12) : null)
                   );
                 break;
             case DISCONNECT:
@@ -114,7 +178,7 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 view.toggleAudio(audioEnabled);
                 break;
             case GET_STATS:
-                view.getStats();
+                view.getStats(args != null && args.size() > 0 ? buildStatsFieldMask(args.getArray(0)) : StatsFields.DEFAULT);
                 break;
             case DISABLE_OPENSL_ES:
                 view.disableOpenSLES();
@@ -135,7 +199,10 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 view.toggleBluetoothHeadset(headsetEnabled);
                 break;
             case SEND_STRING:
-                view.sendString(args.getString(0));
+                view.sendString(args.size() > 1 ? args.getString(1) : null, args.getString(0));
+                break;
+            case SEND_BINARY:
+                view.sendBinary(args.size() > 1 ? args.getString(1) : null, args.getString(0));
                 break;
             case PUBLISH_VIDEO:
                 view.publishLocalVideo(args.getBoolean(0));
@@ -143,7 +210,418 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
             case PUBLISH_AUDIO:
                 view.publishLocalAudio(args.getBoolean(0));
                 break;
+            case SET_ENCODING_PARAMETERS:
+                EncodingParameters parameters = buildEncodingParameters(args.getMap(0));
+                view.setEncodingParameters(parameters != null ? parameters : new EncodingParameters(0, 0));
+                break;
+            case SET_REMOTE_TRACK_PRIORITY:
+                String remotePriority = args.isNull(1) ? null : args.getString(1);
+                // null clears the priority, an unknown name leaves it alone
+                if (remotePriority == null || parseTrackPriority(remotePriority) != null) {
+                    view.setRemoteTrackPriority(args.getString(0), parseTrackPriority(remotePriority));
+                }
+                break;
+            case SET_LOCAL_TRACK_PRIORITY:
+                String localPriority = args.isNull(1) ? null : args.getString(1);
+                if (localPriority == null || parseTrackPriority(localPriority) != null) {
+                    view.setLocalTrackPriority(args.getString(0), parseTrackPriority(localPriority));
+                }
+                break;
+            case SET_EVENT_BATCHING:
+                ReadableMap batching = args.getMap(0);
+                view.setEventBatching(
+                        batching.hasKey("enabled") && batching.getBoolean("enabled"),
+                        batching.hasKey("flushIntervalMs") ? (long) batching.getDouble("flushIntervalMs") : EventBatcher.DEFAULT_FLUSH_INTERVAL_MS,
+                        batching.hasKey("coalesce") ? buildCoalesceKeyPaths(batching.getMap("coalesce")) : null
+                );
+                break;
+            case GET_DATA_TRACK_SENDER_STATS:
+                view.getDataTrackSenderStats();
+                break;
+            case SEND_LARGE_MESSAGE:
+                ReadableMap largeMessageOptions = args.getMap(1);
+                view.sendLargeMessage(
+                        largeMessageOptions.hasKey("channel") ? largeMessageOptions.getString("channel") : null,
+                        args.getString(0),
+                        largeMessageOptions.hasKey("binary") && largeMessageOptions.getBoolean("binary"),
+                        largeMessageOptions.hasKey("compress") && largeMessageOptions.getBoolean("compress")
+                );
+                break;
+            case SET_DATA_TRACK_INBOUND:
+                view.setDataTrackInbound(buildDataTrackInboxConfig(args.getMap(0)));
+                break;
+            case SET_STATS_SAMPLING:
+                ReadableMap sampling = args.getMap(0);
+                view.setStatsSampling(
+                        !sampling.hasKey("enabled") || sampling.getBoolean("enabled"),
+                        sampling.hasKey("intervalMs") ? (long) sampling.getDouble("intervalMs") : 1000,
+                        !sampling.hasKey("emitSamples") || sampling.getBoolean("emitSamples"),
+                        sampling.hasKey("historySize") ? sampling.getInt("historySize") : 0
+                );
+                break;
+            case GET_STATS_SUMMARY:
+                view.getStatsSummary();
+                break;
+            case SET_BACKGROUND_VIDEO:
+                ReadableMap backgroundVideo = args.getMap(0);
+                view.setBackgroundVideo(
+                        !backgroundVideo.hasKey("suspend") || backgroundVideo.getBoolean("suspend"),
+                        backgroundVideo.hasKey("gracePeriodMs") ? (long) backgroundVideo.getDouble("gracePeriodMs") : 30000
+                );
+                break;
+            case START_LOCAL_PREVIEW:
+                ReadableMap preview = args.getMap(0);
+                ReadableMap previewEncoding = preview.hasKey("encodingParameters") ? preview.getMap("encodingParameters") : null;
+                view.startLocalPreview(
+                        !preview.hasKey("enableAudio") || preview.getBoolean("enableAudio"),
+                        !preview.hasKey("enableVideo") || preview.getBoolean("enableVideo"),
+                        preview.hasKey("cameraType") ? preview.getString("cameraType") : "front",
+                        buildCaptureFormat(previewEncoding)
+                );
+                break;
+            case STOP_LOCAL_PREVIEW:
+                view.stopLocalPreview();
+                break;
+            case SET_VIDEO_PROCESSOR_ORDER:
+                ReadableArray processorNames = args.getArray(0);
+                List<String> processorOrder = new ArrayList<>();
+                for (int i = 0; i < processorNames.size(); i++) {
+                    processorOrder.add(processorNames.getString(i));
+                }
+                view.setVideoProcessorOrder(processorOrder);
+                break;
+            case GET_VIDEO_PROCESSOR_STATS:
+                view.getVideoProcessorStats();
+                break;
+            case SET_FRAME_GOVERNOR:
+                ReadableMap governor = args.getMap(0);
+                FrameGovernor.Config governorConfig = null;
+                if (!governor.hasKey("enabled") || governor.getBoolean("enabled")) {
+                    governorConfig = new FrameGovernor.Config();
+                    if (governor.hasKey("targetLatencyMs")) {
+                        governorConfig.targetLatencyMs = (long) governor.getDouble("targetLatencyMs");
+                    }
+                    if (governor.hasKey("minFps")) {
+                        governorConfig.minFps = governor.getInt("minFps");
+                    }
+                    // Left at 0 for the view to use the capture frame rate
+                    governorConfig.maxFps = governor.hasKey("maxFps") ? governor.getInt("maxFps") : 0;
+                    if (governor.hasKey("intervalMs")) {
+                        governorConfig.intervalMs = (long) governor.getDouble("intervalMs");
+                    }
+                }
+                view.setFrameGovernor(governorConfig,
+                        governor.hasKey("adjustCaptureFps") && governor.getBoolean("adjustCaptureFps"));
+                break;
+        }
+    }
+
+    /*
+     * Capture format from the captureWidth, captureHeight and captureFrameRate encoding parameters.
+     */
+    private VideoFormat buildCaptureFormat(@Nullable ReadableMap encodingParameters) {
+        int captureWidth = DEFAULT_CAPTURE_WIDTH;
+        int captureHeight = DEFAULT_CAPTURE_HEIGHT;
+        int captureFrameRate = DEFAULT_CAPTURE_FRAME_RATE;
+        if (encodingParameters != null) {
+            captureWidth = encodingParameters.hasKey("captureWidth") ? encodingParameters.getInt("captureWidth") : captureWidth;
+            captureHeight = encodingParameters.hasKey("captureHeight") ? encodingParameters.getInt("captureHeight") : captureHeight;
+            captureFrameRate = encodingParameters.hasKey("captureFrameRate") ? encodingParameters.getInt("captureFrameRate") : captureFrameRate;
         }
+        return new VideoFormat(new VideoDimensions(captureWidth, captureHeight), captureFrameRate);
+    }
+
+    /*
+     * Max send bitrates in kbps, null when neither is given so the SDK defaults apply.
+     */
+    @Nullable
+    private static EncodingParameters buildEncodingParameters(ReadableMap encodingParameters) {
+        if (!encodingParameters.hasKey("audioBitrate") && !encodingParameters.hasKey("videoBitrate")) {
+            return null;
+        }
+        int audioBitrate = encodingParameters.hasKey("audioBitrate") ? encodingParameters.getInt("audioBitrate") : 0;
+        int videoBitrate = encodingParameters.hasKey("videoBitrate") ? encodingParameters.getInt("videoBitrate") : 0;
+        return new EncodingParameters(audioBitrate, videoBitrate);
+    }
+
+    /*
+     * Reliability options of the local data track, null when none are given so the SDK defaults
+     * (ordered and reliable) apply.
+     */
+    @Nullable
+    private static DataTrackOptions buildDataTrackOptions(@Nullable ReadableMap dataTrack) {
+        if (dataTrack == null || !dataTrack.keySetIterator().hasNextKey()) {
+            return null;
+        }
+        DataTrackOptions.Builder builder = new DataTrackOptions.Builder();
+        if (dataTrack.hasKey("ordered")) {
+            builder.ordered(dataTrack.getBoolean("ordered"));
+        }
+        if (dataTrack.hasKey("maxPacketLifeTime")) {
+            builder.maxPacketLifeTime(dataTrack.getInt("maxPacketLifeTime"));
+        }
+        if (dataTrack.hasKey("maxRetransmits")) {
+            builder.maxRetransmits(dataTrack.getInt("maxRetransmits"));
+        }
+        if (isFramedDataTrack(dataTrack)) {
+            // Receivers tell framed tracks apart by name, so a framed track always has one
+            String name = dataTrack.hasKey("name") ? dataTrack.getString("name") : UUID.randomUUID().toString();
+            builder.name(DataTrackFrames.isFramed(name) ? name : DataTrackFrames.FRAMED_NAME_PREFIX + name);
+        } else if (dataTrack.hasKey("name")) {
+            builder.name(dataTrack.getString("name"));
+        }
+        return builder.build();
+    }
+
+    /*
+     * Aggregation needs framing, and a name with the reserved prefix is framed either way.
+     */
+    private static boolean isFramedDataTrack(ReadableMap dataTrack) {
+        return (dataTrack.hasKey("framed") && dataTrack.getBoolean("framed"))
+                || dataTrack.hasKey("aggregation")
+                || (dataTrack.hasKey("name") && DataTrackFrames.isFramed(dataTrack.getString("name")));
+    }
+
+    /*
+     * Named data tracks take precedence over the single dataTrack option, an empty list creates
+     * one track with the SDK defaults.
+     */
+    private static List<DataTrackOptions> buildDataTrackOptionsList(@Nullable ReadableMap dataTrack, @Nullable ReadableArray dataTracks) {
+        List<DataTrackOptions> optionsList = new ArrayList<>();
+        if (dataTracks != null && dataTracks.size() > 0) {
+            for (int i = 0; i < dataTracks.size(); i++) {
+                // One entry per element so the list lines up with the sender configs
+                DataTrackOptions options = buildDataTrackOptions(dataTracks.getMap(i));
+                optionsList.add(options != null ? options : new DataTrackOptions.Builder().build());
+            }
+            return optionsList;
+        }
+        DataTrackOptions options = buildDataTrackOptions(dataTrack);
+        if (options != null) {
+            optionsList.add(options);
+        }
+        return optionsList;
+    }
+
+    /*
+     * Send pipeline config of each data track, parallel to buildDataTrackOptionsList. An entry is
+     * null when the track is neither framed nor rate limited and sends directly.
+     */
+    private static List<DataTrackSender.Config> buildDataTrackSenderConfigs(@Nullable ReadableMap dataTrack, @Nullable ReadableArray dataTracks) {
+        List<DataTrackSender.Config> configs = new ArrayList<>();
+        if (dataTracks != null && dataTracks.size() > 0) {
+            for (int i = 0; i < dataTracks.size(); i++) {
+                configs.add(buildDataTrackSenderConfig(dataTracks.getMap(i)));
+            }
+            return configs;
+        }
+        configs.add(buildDataTrackSenderConfig(dataTrack));
+        return configs;
+    }
+
+    @Nullable
+    private static DataTrackSender.Config buildDataTrackSenderConfig(@Nullable ReadableMap dataTrack) {
+        if (dataTrack == null || (!isFramedDataTrack(dataTrack) && !dataTrack.hasKey("rateLimit"))) {
+            return null;
+        }
+        DataTrackSender.Config config = new DataTrackSender.Config();
+        config.framed = isFramedDataTrack(dataTrack);
+        if (dataTrack.hasKey("aggregation")) {
+            ReadableMap aggregation = dataTrack.getMap("aggregation");
+            // A larger frame would be refused by the SDK, a smaller one could not hold a byte
+            config.maxFrameBytes = aggregation.hasKey("maxFrameBytes")
+                    ? Math.max(DataTrackFrames.HEADER_BYTES + DataTrackFrames.ENTRY_HEADER_BYTES + 1,
+                            Math.min(DataTrackFrames.MAX_MESSAGE_BYTES, aggregation.getInt("maxFrameBytes")))
+                    : DataTrackFrames.MAX_MESSAGE_BYTES;
+            if (aggregation.hasKey("flushIntervalMs")) {
+                config.flushIntervalMs = (long) aggregation.getDouble("flushIntervalMs");
+            }
+        }
+        if (dataTrack.hasKey("rateLimit")) {
+            ReadableMap rateLimit = dataTrack.getMap("rateLimit");
+            if (rateLimit.hasKey("messagesPerSecond")) {
+                config.messagesPerSecond = rateLimit.getDouble("messagesPerSecond");
+            }
+            if (rateLimit.hasKey("burst")) {
+                config.burst = Math.max(1, rateLimit.getInt("burst"));
+            }
+            if (rateLimit.hasKey("maxQueued")) {
+                config.maxQueued = rateLimit.getInt("maxQueued");
+            }
+        }
+        // Unreliable tracks already accept loss, so their queue may shed stale frames
+        config.lossy = dataTrack.hasKey("lossy")
+                ? dataTrack.getBoolean("lossy")
+                : dataTrack.hasKey("maxPacketLifeTime") || dataTrack.hasKey("maxRetransmits")
+                        || (dataTrack.hasKey("ordered") && !dataTrack.getBoolean("ordered"));
+        return config;
+    }
+
+    private static int buildStatsFieldMask(ReadableArray fieldNames) {
+        int fields = 0;
+        for (int i = 0; i < fieldNames.size(); i++) {
+            fields |= StatsFields.forName(fieldNames.getString(i));
+        }
+        return fields;
+    }
+
+    /*
+     * Inbound queue settings, null when disabled so every message is its own event again.
+     */
+    @Nullable
+    private static DataTrackInbox.Config buildDataTrackInboxConfig(ReadableMap inbound) {
+        if (inbound.hasKey("enabled") && !inbound.getBoolean("enabled")) {
+            return null;
+        }
+        DataTrackInbox.Config config = new DataTrackInbox.Config();
+        if (inbound.hasKey("maxQueued")) {
+            config.maxQueued = Math.max(1, inbound.getInt("maxQueued"));
+        }
+        if (inbound.hasKey("overflow")) {
+            config.overflow = inbound.getString("overflow");
+        }
+        if (inbound.hasKey("coalesceKey")) {
+            config.coalesceKey = inbound.getString("coalesceKey");
+        }
+        if (inbound.hasKey("flushIntervalMs")) {
+            config.flushIntervalMs = (long) inbound.getDouble("flushIntervalMs");
+        }
+        if (inbound.hasKey("maxBatchSize")) {
+            config.maxBatchSize = Math.max(1, inbound.getInt("maxBatchSize"));
+        }
+        return config;
+    }
+
+    private static Map<String, String> buildCoalesceKeyPaths(ReadableMap coalesce) {
+        Map<String, String> keyPaths = new HashMap<>();
+        ReadableMapKeySetIterator iterator = coalesce.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String eventName = iterator.nextKey();
+            keyPaths.put(eventName, coalesce.getString(eventName));
+        }
+        return keyPaths;
+    }
+
+    /*
+     * The names below come from JS unchecked, an unknown one is logged and parsed as null rather
+     * than thrown on the UI thread.
+     */
+    @Nullable
+    private static TrackPriority parseTrackPriority(@Nullable String priority) {
+        if (priority == null) {
+            return null;
+        }
+        switch (priority.trim().toLowerCase(Locale.US)) {
+            case "low":
+                return TrackPriority.LOW;
+            case "standard":
+                return TrackPriority.STANDARD;
+            case "high":
+                return TrackPriority.HIGH;
+            default:
+                Log.w(TAG, "Unknown track priority " + priority);
+                return null;
+        }
+    }
+
+    @Nullable
+    private static BandwidthProfileMode parseBandwidthProfileMode(String mode) {
+        switch (mode.trim().toLowerCase(Locale.US)) {
+            case "grid":
+                return BandwidthProfileMode.GRID;
+            case "collaboration":
+                return BandwidthProfileMode.COLLABORATION;
+            case "presentation":
+                return BandwidthProfileMode.PRESENTATION;
+            default:
+                Log.w(TAG, "Unknown bandwidth profile mode " + mode);
+                return null;
+        }
+    }
+
+    @Nullable
+    private static TrackSwitchOffMode parseTrackSwitchOffMode(String mode) {
+        switch (mode.trim().toLowerCase(Locale.US)) {
+            case "predicted":
+                return TrackSwitchOffMode.PREDICTED;
+            case "detected":
+                return TrackSwitchOffMode.DETECTED;
+            case "disabled":
+                return TrackSwitchOffMode.DISABLED;
+            default:
+                Log.w(TAG, "Unknown track switch off mode " + mode);
+                return null;
+        }
+    }
+
+    /*
+     * Bandwidth profile for group rooms, null when no video profile is given so the room defaults apply.
+     */
+    @Nullable
+    private static BandwidthProfileOptions buildBandwidthProfileOptions(@Nullable ReadableMap bandwidthProfile) {
+        if (bandwidthProfile == null || !bandwidthProfile.hasKey("video")) {
+            return null;
+        }
+        ReadableMap video = bandwidthProfile.getMap("video");
+        VideoBandwidthProfileOptions.Builder builder = new VideoBandwidthProfileOptions.Builder();
+
+        BandwidthProfileMode mode = video.hasKey("mode") ? parseBandwidthProfileMode(video.getString("mode")) : null;
+        if (mode != null) {
+            builder.mode(mode);
+        }
+        if (video.hasKey("maxSubscriptionBitrate")) {
+            builder.maxSubscriptionBitrate((long) video.getDouble("maxSubscriptionBitrate"));
+        }
+        TrackPriority dominantSpeakerPriority = video.hasKey("dominantSpeakerPriority")
+                ? parseTrackPriority(video.getString("dominantSpeakerPriority")) : null;
+        if (dominantSpeakerPriority != null) {
+            builder.dominantSpeakerPriority(dominantSpeakerPriority);
+        }
+        TrackSwitchOffMode trackSwitchOffMode = video.hasKey("trackSwitchOffMode")
+                ? parseTrackSwitchOffMode(video.getString("trackSwitchOffMode")) : null;
+        if (trackSwitchOffMode != null) {
+            builder.trackSwitchOffMode(trackSwitchOffMode);
+        }
+        if (video.hasKey("renderDimensions")) {
+            builder.renderDimensions(buildRenderDimensions(video.getMap("renderDimensions")));
+        }
+
+        return new BandwidthProfileOptions(builder.build());
+    }
+
+    private static Map<TrackPriority, VideoDimensions> buildRenderDimensions(ReadableMap renderDimensions) {
+        Map<TrackPriority, VideoDimensions> dimensionsByPriority = new HashMap<>();
+        ReadableMapKeySetIterator iterator = renderDimensions.keySetIterator();
+        while (iterator.hasNextKey()) {
+            String name = iterator.nextKey();
+            TrackPriority priority = parseTrackPriority(name);
+            if (priority == null) {
+                continue;
+            }
+            ReadableMap dimensions = renderDimensions.getMap(name);
+            dimensionsByPriority.put(
+                    priority,
+                    new VideoDimensions(dimensions.getInt("width"), dimensions.getInt("height")));
+        }
+        return dimensionsByPriority;
+    }
+
+    /*
+     * Priority thresholds for render size hints, null when renderSizeHints is not enabled.
+     */
+    @Nullable
+    private static Map<TrackPriority, VideoDimensions> buildRenderSizeHintDimensions(@Nullable ReadableMap bandwidthProfile) {
+        if (bandwidthProfile == null || !bandwidthProfile.hasKey("video")) {
+            return null;
+        }
+        ReadableMap video = bandwidthProfile.getMap("video");
+        if (!video.hasKey("renderSizeHints") || !video.getBoolean("renderSizeHints")) {
+            return null;
+        }
+        if (video.hasKey("renderDimensions")) {
+            return buildRenderDimensions(video.getMap("renderDimensions"));
+        }
+        return new HashMap<>();
     }
 
     @Override
@@ -171,7 +649,12 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
 
         map.putAll(MapBuilder.of(
                 ON_PARTICIPANT_REMOVED_DATA_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_REMOVED_DATA_TRACK),
-                ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS, MapBuilder.of("registrationName", ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS)
+                ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS, MapBuilder.of("registrationName", ON_LOCAL_PARTICIPANT_SUPPORTED_CODECS),
+                ON_CODEC_PROBE_COMPLETED, MapBuilder.of("registrationName", ON_CODEC_PROBE_COMPLETED),
+                ON_CAPTURE_FORMAT_CHANGED, MapBuilder.of("registrationName", ON_CAPTURE_FORMAT_CHANGED),
+                ON_EVENT_BATCH, MapBuilder.of("registrationName", ON_EVENT_BATCH),
+                ON_DATATRACK_BINARY_MESSAGE_RECEIVED, MapBuilder.of("registrationName", ON_DATATRACK_BINARY_MESSAGE_RECEIVED),
+                ON_DATA_TRACK_SENDER_STATS, MapBuilder.of("registrationName", ON_DATA_TRACK_SENDER_STATS)
         ));
 
         map.putAll(MapBuilder.of(
@@ -184,6 +667,21 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 ON_DOMINANT_SPEAKER_CHANGED, MapBuilder.of("registrationName", ON_DOMINANT_SPEAKER_CHANGED)
         ));
 
+        map.putAll(MapBuilder.of(
+                ON_DATA_TRACK_TRANSFER_PROGRESS, MapBuilder.of("registrationName", ON_DATA_TRACK_TRANSFER_PROGRESS),
+                ON_DATA_TRACK_TRANSFER_FAILED, MapBuilder.of("registrationName", ON_DATA_TRACK_TRANSFER_FAILED),
+                ON_DATA_TRACK_MESSAGE_BATCH, MapBuilder.of("registrationName", ON_DATA_TRACK_MESSAGE_BATCH),
+                ON_STATS_SAMPLE, MapBuilder.of("registrationName", ON_STATS_SAMPLE),
+                ON_STATS_SUMMARY, MapBuilder.of("registrationName", ON_STATS_SUMMARY),
+                ON_MEDIA_TIMINGS, MapBuilder.of("registrationName", ON_MEDIA_TIMINGS),
+                ON_LOCAL_VIDEO_LIFECYCLE, MapBuilder.of("registrationName", ON_LOCAL_VIDEO_LIFECYCLE)
+        ));
+
+        map.putAll(MapBuilder.of(
+                ON_VIDEO_PROCESSOR_STATS, MapBuilder.of("registrationName", ON_VIDEO_PROCESSOR_STATS),
+                ON_FRAME_GOVERNOR_METRICS, MapBuilder.of("registrationName", ON_FRAME_GOVERNOR_METRICS)
+        ));
+
         return map;
     }
 
@@ -201,6 +699,22 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 .put("toggleRemoteSound", TOGGLE_REMOTE_SOUND)
                 .put("toggleBluetoothHeadset", TOGGLE_BLUETOOTH_HEADSET)
                 .put("sendString", SEND_STRING)
+                .put("sendBinary", SEND_BINARY)
+                .put("getDataTrackSenderStats", GET_DATA_TRACK_SENDER_STATS)
+                .put("sendLargeMessage", SEND_LARGE_MESSAGE)
+                .put("setDataTrackInbound", SET_DATA_TRACK_INBOUND)
+                .put("setStatsSampling", SET_STATS_SAMPLING)
+                .put("getStatsSummary", GET_STATS_SUMMARY)
+                .put("setBackgroundVideo", SET_BACKGROUND_VIDEO)
+                .put("startLocalPreview", START_LOCAL_PREVIEW)
+                .put("stopLocalPreview", STOP_LOCAL_PREVIEW)
+                .put("setVideoProcessorOrder", SET_VIDEO_PROCESSOR_ORDER)
+                .put("getVideoProcessorStats", GET_VIDEO_PROCESSOR_STATS)
+                .put("setFrameGovernor", SET_FRAME_GOVERNOR)
+                .put("setEncodingParameters", SET_ENCODING_PARAMETERS)
+                .put("setRemoteTrackPriority", SET_REMOTE_TRACK_PRIORITY)
+                .put("setLocalTrackPriority", SET_LOCAL_TRACK_PRIORITY)
+                .put("setEventBatching", SET_EVENT_BATCHING)
                 .build();
     }
 }
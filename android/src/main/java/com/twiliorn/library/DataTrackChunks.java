@@ -0,0 +1,120 @@
+/**
+ * Wire format for payloads larger than a single data-track message.
+ * <p>
+ * Every chunk starts with a 4 byte magic, a 1 byte flags field, the message id, the chunk
+ * sequence number and the total (possibly compressed) payload length, all big-endian ints,
+ * followed by up to {@link #CHUNK_PAYLOAD_BYTES} bytes of the payload.
+ * <p>
+ * Chunks are only sent on framed tracks, each as a {@link DataTrackFrames#TYPE_CHUNK} entry of a
+ * frame, so a raw binary message that starts with the magic is never taken for one.
+ */
+package com.twiliorn.library;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public final class DataTrackChunks {
+    static final int MAGIC = 0x54564348; // "TVCH"
+    static final int HEADER_BYTES = 17;
+    // A chunk in a frame of its own fits a data-track message
+    static final int CHUNK_PAYLOAD_BYTES = DataTrackFrames.MAX_MESSAGE_BYTES
+            - DataTrackFrames.HEADER_BYTES - DataTrackFrames.ENTRY_HEADER_BYTES - HEADER_BYTES;
+
+    static final byte FLAG_BINARY = 1;
+    static final byte FLAG_DEFLATE = 1 << 1;
+
+    public static class Header {
+        public byte flags;
+        public int messageId;
+        public int sequence;
+        public int totalLength;
+
+        public int getChunkCount() {
+            return chunkCount(totalLength);
+        }
+    }
+
+    private DataTrackChunks() {
+    }
+
+    public static boolean isChunk(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    public static int chunkCount(int totalLength) {
+        return Math.max(1, (totalLength + CHUNK_PAYLOAD_BYTES - 1) / CHUNK_PAYLOAD_BYTES);
+    }
+
+    /*
+     * The chunk at the given sequence number, header included and ready to send.
+     */
+    public static ByteBuffer chunk(byte[] payload, byte flags, int messageId, int sequence) {
+        int offset = sequence * CHUNK_PAYLOAD_BYTES;
+        int length = Math.min(CHUNK_PAYLOAD_BYTES, payload.length - offset);
+        ByteBuffer chunk = ByteBuffer.allocate(HEADER_BYTES + length);
+        chunk.putInt(MAGIC);
+        chunk.put(flags);
+        chunk.putInt(messageId);
+        chunk.putInt(sequence);
+        chunk.putInt(payload.length);
+        chunk.put(payload, offset, length);
+        chunk.flip();
+        return chunk;
+    }
+
+    /*
+     * Read the header and leave the buffer positioned at the chunk payload.
+     */
+    public static Header readHeader(ByteBuffer chunk, Header header) {
+        chunk.getInt();
+        header.flags = chunk.get();
+        header.messageId = chunk.getInt();
+        header.sequence = chunk.getInt();
+        header.totalLength = chunk.getInt();
+        return header;
+    }
+
+    public static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, payload.length / 2));
+            byte[] buffer = new byte[8 * 1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /*
+     * Inflate at most maxBytes, returns null when the payload expands beyond it.
+     */
+    public static byte[] inflate(byte[] payload, int maxBytes) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxBytes, payload.length * 2));
+            byte[] buffer = new byte[8 * 1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated deflate stream");
+                }
+                if (out.size() + inflated > maxBytes) {
+                    return null;
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Wire format for several data-track messages packed into a single SCTP message.
+ * <p>
+ * A frame starts with a 4 byte magic, followed by entries of a 1 byte type, a 4 byte
+ * big-endian length and the payload bytes. Chunks of {@link DataTrackChunks} travel as entries of
+ * their own type, so they too are only recognised on framed tracks.
+ * <p>
+ * Framing is a property of the track, not of the message: a track is framed when its name
+ * starts with {@link #FRAMED_NAME_PREFIX}, and every binary message on it is a frame. Binary
+ * messages on other tracks are passed through untouched, whatever bytes they start with.
+ */
+package com.twiliorn.library;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+public final class DataTrackFrames {
+    static final int MAGIC = 0x54564147; // "TVAG"
+    // Reserved, not part of the channel name reported to JS
+    static final String FRAMED_NAME_PREFIX = "framed:";
+    // Twilio caps a data-track message at 16 KiB
+    static final int MAX_MESSAGE_BYTES = 16 * 1024;
+    static final int HEADER_BYTES = 4;
+    static final int ENTRY_HEADER_BYTES = 5;
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_BINARY = 1;
+    static final byte TYPE_CHUNK = 2;
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public interface Receiver {
+        void onString(String message);
+
+        void onBinary(ByteBuffer payload);
+
+        void onChunk(ByteBuffer chunk);
+    }
+
+    private DataTrackFrames() {
+    }
+
+    public static boolean isFramed(String trackName) {
+        return trackName != null && trackName.startsWith(FRAMED_NAME_PREFIX);
+    }
+
+    /*
+     * The name a track is addressed by from JS, without the framing prefix.
+     */
+    public static String channelName(String trackName) {
+        return isFramed(trackName) ? trackName.substring(FRAMED_NAME_PREFIX.length()) : trackName;
+    }
+
+    public static boolean isFrame(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /*
+     * A frame holding the payload as its only entry.
+     */
+    public static ByteBuffer frame(byte type, ByteBuffer payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + ENTRY_HEADER_BYTES + payload.remaining());
+        frame.putInt(MAGIC);
+        frame.put(type);
+        frame.putInt(payload.remaining());
+        frame.put(payload.duplicate());
+        frame.flip();
+        return frame;
+    }
+
+    /*
+     * Deliver every entry of the frame in order. Binary entries are slices of the frame, not copies.
+     */
+    public static void unpack(ByteBuffer frame, Receiver receiver) {
+        ByteBuffer buffer = frame.duplicate();
+        buffer.position(buffer.position() + HEADER_BYTES);
+        while (buffer.remaining() >= ENTRY_HEADER_BYTES) {
+            byte type = buffer.get();
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                return;
+            }
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+            if (type == TYPE_STRING) {
+                receiver.onString(decodeString(payload));
+            } else if (type == TYPE_CHUNK) {
+                receiver.onChunk(payload);
+            } else {
+                receiver.onBinary(payload);
+            }
+        }
+    }
+
+    private static String decodeString(ByteBuffer payload) {
+        if (payload.hasArray()) {
+            return new String(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(), UTF_8);
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
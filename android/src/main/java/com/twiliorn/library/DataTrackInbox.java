@@ -0,0 +1,230 @@
+/**
+ * Bounded per-track queue between remote data tracks and JS. Messages are delivered in
+ * batches, so a chatty peer costs one bridge event per flush interval instead of one per message.
+ * <p>
+ * All methods must be called on the handler's thread.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.util.Base64;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DataTrackInbox {
+    public static final String OVERFLOW_DROP_OLDEST = "dropOldest";
+    public static final String OVERFLOW_DROP_NEWEST = "dropNewest";
+    public static final String OVERFLOW_COALESCE = "coalesce";
+
+    public interface Sink {
+        void putSource(WritableMap entry, Object source);
+
+        void onBatch(WritableMap batch);
+    }
+
+    public static class Config {
+        public int maxQueued = 256;
+        public String overflow = OVERFLOW_DROP_OLDEST;
+        // Dotted path of the JSON field string messages are coalesced by
+        public String coalesceKey = null;
+        public long flushIntervalMs = 16;
+        // Per track and flush, the rest stays queued for the next one
+        public int maxBatchSize = 64;
+    }
+
+    private static class TrackQueue {
+        // Messages without a coalescing key use a unique sequence key
+        final LinkedHashMap<String, Object> messages = new LinkedHashMap<>();
+        long sequence = 0;
+        long received = 0;
+        long dropped = 0;
+        long coalesced = 0;
+    }
+
+    private final Config config;
+    private final Handler handler;
+    private final Sink sink;
+    private final Map<Object, TrackQueue> queues = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    public DataTrackInbox(Config config, Handler handler, Sink sink) {
+        this.config = config;
+        this.handler = handler;
+        this.sink = sink;
+    }
+
+    public void add(Object source, String message) {
+        enqueue(source, message, OVERFLOW_COALESCE.equals(config.overflow) ? coalesceKey(message) : null);
+    }
+
+    /*
+     * The payload is copied, the track reuses its buffer once the callback returns.
+     */
+    public void add(Object source, ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        enqueue(source, bytes, null);
+    }
+
+    /*
+     * Deliver what is left for the source and forget it.
+     */
+    public void remove(Object source) {
+        TrackQueue queue = queues.get(source);
+        if (queue == null) {
+            return;
+        }
+        if (!queue.messages.isEmpty()) {
+            WritableArray tracks = new WritableNativeArray();
+            tracks.pushMap(drain(source, queue, Integer.MAX_VALUE));
+            emit(tracks);
+        }
+        queues.remove(source);
+    }
+
+    /*
+     * Deliver everything queued and stop the flush timer.
+     */
+    public void stop() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        WritableArray tracks = new WritableNativeArray();
+        boolean hasMessages = false;
+        for (Map.Entry<Object, TrackQueue> entry : queues.entrySet()) {
+            if (!entry.getValue().messages.isEmpty()) {
+                tracks.pushMap(drain(entry.getKey(), entry.getValue(), Integer.MAX_VALUE));
+                hasMessages = true;
+            }
+        }
+        queues.clear();
+        if (hasMessages) {
+            emit(tracks);
+        }
+    }
+
+    private void enqueue(Object source, Object message, String key) {
+        TrackQueue queue = queues.get(source);
+        if (queue == null) {
+            queue = new TrackQueue();
+            queues.put(source, queue);
+        }
+        queue.received++;
+
+        if (key != null && queue.messages.remove(key) != null) {
+            // Re-put so the latest value moves to the back
+            queue.coalesced++;
+        } else if (queue.messages.size() >= config.maxQueued) {
+            if (OVERFLOW_DROP_NEWEST.equals(config.overflow)) {
+                queue.dropped++;
+                return;
+            }
+            Iterator<Object> iterator = queue.messages.values().iterator();
+            iterator.next();
+            iterator.remove();
+            queue.dropped++;
+        }
+        queue.messages.put(key != null ? key : "#" + queue.sequence++, message);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, config.flushIntervalMs);
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        WritableArray tracks = new WritableNativeArray();
+        boolean hasMessages = false;
+        boolean backlog = false;
+        for (Map.Entry<Object, TrackQueue> entry : queues.entrySet()) {
+            TrackQueue queue = entry.getValue();
+            if (queue.messages.isEmpty()) {
+                continue;
+            }
+            tracks.pushMap(drain(entry.getKey(), queue, config.maxBatchSize));
+            hasMessages = true;
+            backlog |= !queue.messages.isEmpty();
+        }
+        if (hasMessages) {
+            emit(tracks);
+        }
+        if (backlog) {
+            scheduleFlush();
+        }
+    }
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private WritableMap drain(Object source, TrackQueue queue, int maxMessages) {
+        WritableArray messages = new WritableNativeArray();
+        Iterator<Object> iterator = queue.messages.values().iterator();
+        for (int i = 0; i < maxMessages && iterator.hasNext(); i++) {
+            Object message = iterator.next();
+            iterator.remove();
+            WritableMap item = new WritableNativeMap();
+            if (message instanceof String) {
+                item.putString("message", (String) message);
+            } else {
+                item.putString("payload", Base64.encodeToString((byte[]) message, Base64.NO_WRAP));
+            }
+            messages.pushMap(item);
+        }
+
+        WritableMap entry = new WritableNativeMap();
+        sink.putSource(entry, source);
+        entry.putArray("messages", messages);
+        entry.putInt("queueDepth", queue.messages.size());
+        entry.putDouble("received", queue.received);
+        entry.putDouble("dropped", queue.dropped);
+        entry.putDouble("coalesced", queue.coalesced);
+        return entry;
+    }
+
+    private void emit(WritableArray tracks) {
+        WritableMap batch = new WritableNativeMap();
+        batch.putArray("tracks", tracks);
+        sink.onBatch(batch);
+    }
+
+    /*
+     * Value at the coalesce key path of a JSON object message, null when there is none.
+     */
+    private String coalesceKey(String message) {
+        if (config.coalesceKey == null || message.isEmpty() || message.charAt(0) != '{') {
+            return null;
+        }
+        try {
+            JSONObject object = new JSONObject(message);
+            String[] fields = config.coalesceKey.split("\\.");
+            for (int i = 0; i < fields.length - 1; i++) {
+                object = object.optJSONObject(fields[i]);
+                if (object == null) {
+                    return null;
+                }
+            }
+            Object value = object.opt(fields[fields.length - 1]);
+            return value != null ? "=" + value : null;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Rebuilds chunked data-track payloads, one partial message per source and message id.
+ * <p>
+ * Memory is bounded by a per-message and a total limit, the oldest partial message is evicted
+ * to make room. Partial messages that stop receiving chunks are dropped after the timeout.
+ * All methods must be called on the handler's thread.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+public class DataTrackReassembler {
+    public static final String REASON_TOO_LARGE = "tooLarge";
+    public static final String REASON_EVICTED = "evicted";
+    public static final String REASON_TIMEOUT = "timeout";
+    public static final String REASON_CORRUPT = "corrupt";
+
+    public interface Listener {
+        void onProgress(Object source, int messageId, int bytesReceived, int totalBytes);
+
+        void onComplete(Object source, int messageId, byte[] payload, boolean binary);
+
+        void onFailed(Object source, int messageId, String reason);
+    }
+
+    public static class Config {
+        public int maxMessageBytes = 4 * 1024 * 1024;
+        public int maxPendingBytes = 16 * 1024 * 1024;
+        public long timeoutMs = 30000;
+    }
+
+    private static class Key {
+        final Object source;
+        final int messageId;
+
+        Key(Object source, int messageId) {
+            this.source = source;
+            this.messageId = messageId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return messageId == other.messageId && source.equals(other.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + messageId;
+        }
+    }
+
+    private class Partial implements Runnable {
+        final Key key;
+        final byte flags;
+        final byte[] buffer;
+        final boolean[] received;
+        int receivedChunks = 0;
+        int receivedBytes = 0;
+
+        Partial(Key key, DataTrackChunks.Header header) {
+            this.key = key;
+            this.flags = header.flags;
+            this.buffer = new byte[header.totalLength];
+            this.received = new boolean[header.getChunkCount()];
+        }
+
+        // Timeout
+        @Override
+        public void run() {
+            discard(this, REASON_TIMEOUT);
+        }
+    }
+
+    private final Config config;
+    private final Handler handler;
+    private final Listener listener;
+    // Insertion order is arrival order, the head is the first to evict
+    private final LinkedHashMap<Key, Partial> partials = new LinkedHashMap<>();
+    private final DataTrackChunks.Header header = new DataTrackChunks.Header();
+    private int pendingBytes = 0;
+
+    public DataTrackReassembler(Config config, Handler handler, Listener listener) {
+        this.config = config;
+        this.handler = handler;
+        this.listener = listener;
+    }
+
+    public void onChunk(Object source, ByteBuffer chunk) {
+        ByteBuffer buffer = chunk.duplicate();
+        DataTrackChunks.readHeader(buffer, header);
+        int messageId = header.messageId;
+
+        if (header.totalLength < 0 || header.totalLength > config.maxMessageBytes
+                || header.totalLength > config.maxPendingBytes) {
+            // Report once per message rather than once per chunk
+            if (header.sequence == 0) {
+                listener.onFailed(source, messageId, REASON_TOO_LARGE);
+            }
+            return;
+        }
+
+        Key key = new Key(source, messageId);
+        Partial partial = partials.get(key);
+        if (partial == null) {
+            makeRoom(header.totalLength);
+            partial = new Partial(key, header);
+            partials.put(key, partial);
+            pendingBytes += header.totalLength;
+        }
+
+        int offset = header.sequence * DataTrackChunks.CHUNK_PAYLOAD_BYTES;
+        int length = buffer.remaining();
+        if (partial.buffer.length != header.totalLength || partial.flags != header.flags
+                || header.sequence < 0 || header.sequence >= partial.received.length
+                || length != Math.min(DataTrackChunks.CHUNK_PAYLOAD_BYTES, header.totalLength - offset)) {
+            discard(partial, REASON_CORRUPT);
+            return;
+        }
+        if (partial.received[header.sequence]) {
+            return;
+        }
+        buffer.get(partial.buffer, offset, length);
+        partial.received[header.sequence] = true;
+        partial.receivedChunks++;
+        partial.receivedBytes += length;
+
+        handler.removeCallbacks(partial);
+        if (partial.receivedChunks < partial.received.length) {
+            handler.postDelayed(partial, config.timeoutMs);
+            listener.onProgress(source, messageId, partial.receivedBytes, partial.buffer.length);
+            return;
+        }
+
+        release(partial);
+        byte[] payload = partial.buffer;
+        if ((partial.flags & DataTrackChunks.FLAG_DEFLATE) != 0) {
+            try {
+                payload = DataTrackChunks.inflate(payload, config.maxMessageBytes);
+            } catch (DataFormatException e) {
+                listener.onFailed(source, messageId, REASON_CORRUPT);
+                return;
+            }
+            if (payload == null) {
+                listener.onFailed(source, messageId, REASON_TOO_LARGE);
+                return;
+            }
+        }
+        listener.onProgress(source, messageId, partial.receivedBytes, partial.buffer.length);
+        listener.onComplete(source, messageId, payload, (partial.flags & DataTrackChunks.FLAG_BINARY) != 0);
+    }
+
+    /*
+     * Free every partial message of the source, without reporting them as failed.
+     */
+    public void remove(Object source) {
+        Iterator<Partial> iterator = partials.values().iterator();
+        while (iterator.hasNext()) {
+            Partial partial = iterator.next();
+            if (partial.key.source.equals(source)) {
+                iterator.remove();
+                handler.removeCallbacks(partial);
+                pendingBytes -= partial.buffer.length;
+            }
+        }
+    }
+
+    public void clear() {
+        for (Partial partial : partials.values()) {
+            handler.removeCallbacks(partial);
+        }
+        partials.clear();
+        pendingBytes = 0;
+    }
+
+    private void makeRoom(int bytes) {
+        Iterator<Partial> iterator = partials.values().iterator();
+        while (pendingBytes + bytes > config.maxPendingBytes && iterator.hasNext()) {
+            Partial oldest = iterator.next();
+            iterator.remove();
+            handler.removeCallbacks(oldest);
+            pendingBytes -= oldest.buffer.length;
+            listener.onFailed(oldest.key.source, oldest.key.messageId, REASON_EVICTED);
+        }
+    }
+
+    private void discard(Partial partial, String reason) {
+        release(partial);
+        listener.onFailed(partial.key.source, partial.key.messageId, reason);
+    }
+
+    private void release(Partial partial) {
+        if (partials.remove(partial.key) == partial) {
+            pendingBytes -= partial.buffer.length;
+        }
+        handler.removeCallbacks(partial);
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ * Optional send pipeline for one local data track: packs small messages into size-bounded
+ * frames and gates frames through a token bucket.
+ * <p>
+ * On a framed track every binary message leaves as a frame, a lone one included, so the
+ * receiver never has to guess from the payload. Text messages cannot be mistaken for a frame
+ * and a lone one is sent as is.
+ * <p>
+ * All methods must be called on the handler's thread, {@link #stop()} included, so it is ordered
+ * after the sends already posted there.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class DataTrackSender {
+    private static final String TAG = "DataTrackSender";
+
+    public interface Transport {
+        void send(String message);
+
+        void send(ByteBuffer payload);
+    }
+
+    public static class Config {
+        // Frame binary messages, required for aggregation
+        public boolean framed = false;
+        // 0 disables aggregation, at most DataTrackFrames.MAX_MESSAGE_BYTES
+        public int maxFrameBytes = 0;
+        public long flushIntervalMs = 16;
+        // 0 disables rate limiting, a frame costs one token per message it carries
+        public double messagesPerSecond = 0;
+        public int burst = 1;
+        // Lossy channels drop the oldest queued frame once maxQueued is exceeded
+        public boolean lossy = false;
+        public int maxQueued = 64;
+    }
+
+    private static class QueuedFrame {
+        final Object payload;
+        final int messageCount;
+        final List<Runnable> onSent;
+
+        QueuedFrame(Object payload, int messageCount, List<Runnable> onSent) {
+            this.payload = payload;
+            this.messageCount = messageCount;
+            this.onSent = onSent;
+        }
+    }
+
+    private final Config config;
+    private final Handler handler;
+    private final Transport transport;
+
+    private final ByteBuffer frame;
+    private int frameMessageCount = 0;
+    private Object frameFirstMessage = null;
+    // Run once the pending frame is handed to the track, null while none are waiting
+    private List<Runnable> frameOnSent = null;
+    private boolean flushScheduled = false;
+
+    private final ArrayDeque<QueuedFrame> queue = new ArrayDeque<>();
+    private double tokens;
+    private long lastRefillMs;
+    private boolean drainScheduled = false;
+
+    private long messagesSent = 0;
+    private long messagesAggregated = 0;
+    private long messagesDropped = 0;
+    private long framesSent = 0;
+
+    public DataTrackSender(Config config, Handler handler, Transport transport) {
+        this.config = config;
+        this.handler = handler;
+        this.transport = transport;
+        this.frame = config.framed
+                ? ByteBuffer.allocate(config.maxFrameBytes > 0 ? config.maxFrameBytes : DataTrackFrames.MAX_MESSAGE_BYTES)
+                : null;
+        this.tokens = config.burst;
+        this.lastRefillMs = SystemClock.elapsedRealtime();
+    }
+
+    public void send(String message) {
+        if (frame == null) {
+            submit(message, 1, null);
+            return;
+        }
+        append(DataTrackFrames.TYPE_STRING, message, message.getBytes(DataTrackFrames.UTF_8), null, null);
+    }
+
+    public void send(ByteBuffer payload) {
+        if (frame == null) {
+            submit(payload, 1, null);
+            return;
+        }
+        append(DataTrackFrames.TYPE_BINARY, payload, null, payload, null);
+    }
+
+    /*
+     * Framed tracks only, send a chunk of DataTrackChunks and run onSent once it is handed to the
+     * track rather than when it is queued here.
+     */
+    public void sendChunk(ByteBuffer chunk, Runnable onSent) {
+        append(DataTrackFrames.TYPE_CHUNK, chunk, null, chunk, onSent);
+    }
+
+    public boolean isFramed() {
+        return frame != null;
+    }
+
+    public boolean isLossy() {
+        return config.lossy;
+    }
+
+    public void stop() {
+        handler.removeCallbacks(flushRunnable);
+        handler.removeCallbacks(drainRunnable);
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public long getMessagesAggregated() {
+        return messagesAggregated;
+    }
+
+    public long getMessagesDropped() {
+        return messagesDropped;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // ===== AGGREGATION ===========================================================================
+
+    private void append(byte type, Object message, byte[] bytes, ByteBuffer payload, Runnable onSent) {
+        int length = bytes != null ? bytes.length : payload.remaining();
+        int entryBytes = DataTrackFrames.ENTRY_HEADER_BYTES + length;
+
+        // Too large to share a frame, keep ordering by flushing what is pending first
+        if (DataTrackFrames.HEADER_BYTES + entryBytes > frame.capacity()) {
+            flush();
+            if (type == DataTrackFrames.TYPE_STRING) {
+                submit(message, 1, null);
+            } else if (DataTrackFrames.HEADER_BYTES + entryBytes <= DataTrackFrames.MAX_MESSAGE_BYTES) {
+                submit(DataTrackFrames.frame(type, payload), 1,
+                        onSent != null ? Collections.singletonList(onSent) : null);
+            } else {
+                // Sent raw it would be read as a frame, and it is too large to wrap in one
+                messagesDropped++;
+                Log.w(TAG, "Dropped a binary message of " + length + " bytes, too large to frame");
+            }
+            return;
+        }
+        if (frame.position() + entryBytes > frame.capacity()) {
+            flush();
+        }
+        if (frameMessageCount == 0) {
+            frame.putInt(DataTrackFrames.MAGIC);
+            frameFirstMessage = message;
+        }
+        frame.put(type);
+        frame.putInt(length);
+        if (bytes != null) {
+            frame.put(bytes);
+        } else {
+            frame.put(payload.duplicate());
+        }
+        frameMessageCount++;
+        if (onSent != null) {
+            if (frameOnSent == null) {
+                frameOnSent = new ArrayList<>();
+            }
+            frameOnSent.add(onSent);
+        }
+
+        if (config.maxFrameBytes <= 0) {
+            // Framed but not aggregated
+            flush();
+            return;
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, config.flushIntervalMs);
+        }
+    }
+
+    private void flush() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        if (frameMessageCount == 0) {
+            return;
+        }
+        if (frameMessageCount == 1 && frameFirstMessage instanceof String) {
+            // No point paying for the frame header on a lone text message
+            submit(frameFirstMessage, 1, frameOnSent);
+        } else {
+            frame.flip();
+            ByteBuffer packed = ByteBuffer.allocate(frame.remaining());
+            packed.put(frame);
+            packed.flip();
+            if (frameMessageCount > 1) {
+                messagesAggregated += frameMessageCount;
+            }
+            submit(packed, frameMessageCount, frameOnSent);
+        }
+        frame.clear();
+        frameMessageCount = 0;
+        frameFirstMessage = null;
+        frameOnSent = null;
+    }
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled = false;
+            flush();
+        }
+    };
+
+    // ===== RATE LIMITING =========================================================================
+
+    private void submit(Object payload, int messageCount, List<Runnable> onSent) {
+        if (config.messagesPerSecond <= 0) {
+            transmit(payload, messageCount, onSent);
+            return;
+        }
+        refill();
+        // A frame goes out with one token left and may run the bucket into debt, so any frame
+        // size is sent and the message rate still averages out at messagesPerSecond
+        if (queue.isEmpty() && tokens >= 1) {
+            tokens -= messageCount;
+            transmit(payload, messageCount, onSent);
+            return;
+        }
+        queue.addLast(new QueuedFrame(payload, messageCount, onSent));
+        if (config.lossy && queue.size() > config.maxQueued) {
+            messagesDropped += queue.pollFirst().messageCount;
+        }
+        scheduleDrain();
+    }
+
+    private void drain() {
+        refill();
+        while (!queue.isEmpty() && tokens >= 1) {
+            QueuedFrame queued = queue.pollFirst();
+            tokens -= queued.messageCount;
+            transmit(queued.payload, queued.messageCount, queued.onSent);
+        }
+        if (!queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        long delayMs = (long) Math.ceil((1 - tokens) * 1000 / config.messagesPerSecond);
+        handler.postDelayed(drainRunnable, Math.max(1, delayMs));
+    }
+
+    private final Runnable drainRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled = false;
+            drain();
+        }
+    };
+
+    private void refill() {
+        long now = SystemClock.elapsedRealtime();
+        tokens = Math.min(config.burst, tokens + (now - lastRefillMs) * config.messagesPerSecond / 1000);
+        lastRefillMs = now;
+    }
+
+    private void transmit(Object payload, int messageCount, List<Runnable> onSent) {
+        if (payload instanceof String) {
+            transport.send((String) payload);
+        } else {
+            transport.send((ByteBuffer) payload);
+        }
+        framesSent++;
+        messagesSent += messageCount;
+        if (onSent != null) {
+            for (Runnable callback : onSent) {
+                callback.run();
+            }
+        }
+    }
+}
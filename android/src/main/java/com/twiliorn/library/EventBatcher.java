@@ -0,0 +1,138 @@
+/**
+ * Collects events bound for JS and delivers them as a single array event per flush interval.
+ * <p>
+ * Lifecycle events keep their order. Events registered as coalesced are last-writer-wins
+ * per key, so a storm of state updates only delivers the latest value.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EventBatcher {
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 16;
+
+    public interface Sink {
+        void onBatch(WritableMap batch);
+    }
+
+    private static class PendingEvent {
+        final String name;
+        final WritableMap data;
+
+        PendingEvent(String name, WritableMap data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final Sink sink;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Ordered events use a unique sequence key, coalesced events their coalescing key
+    private final LinkedHashMap<String, PendingEvent> pending = new LinkedHashMap<>();
+    // Event name to the dotted path of the field to coalesce by, empty to coalesce by name only
+    private final Map<String, String> coalesceKeyPaths = new HashMap<>();
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+    private long sequence = 0;
+    private boolean flushScheduled = false;
+
+    public EventBatcher(Sink sink) {
+        this.sink = sink;
+    }
+
+    public synchronized void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public synchronized void setCoalesceKeyPaths(Map<String, String> coalesceKeyPaths) {
+        this.coalesceKeyPaths.clear();
+        this.coalesceKeyPaths.putAll(coalesceKeyPaths);
+    }
+
+    public synchronized void enqueue(String name, WritableMap data) {
+        String keyPath = coalesceKeyPaths.get(name);
+        String key;
+        if (keyPath == null) {
+            key = "#" + sequence++;
+        } else {
+            key = name + ":" + resolveKey(data, keyPath);
+            // Remove first so the latest value moves behind any lifecycle event queued meanwhile
+            pending.remove(key);
+        }
+        pending.put(key, new PendingEvent(name, data));
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            handler.postDelayed(flushRunnable, flushIntervalMs);
+        }
+    }
+
+    public void flush() {
+        WritableArray events = new WritableNativeArray();
+        synchronized (this) {
+            handler.removeCallbacks(flushRunnable);
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            Iterator<PendingEvent> iterator = pending.values().iterator();
+            while (iterator.hasNext()) {
+                PendingEvent event = iterator.next();
+                WritableMap entry = new WritableNativeMap();
+                entry.putString("name", event.name);
+                entry.putMap("data", event.data);
+                events.pushMap(entry);
+                iterator.remove();
+            }
+        }
+        WritableMap batch = new WritableNativeMap();
+        batch.putArray("events", events);
+        sink.onBatch(batch);
+    }
+
+    public synchronized void clear() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        pending.clear();
+    }
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private static String resolveKey(ReadableMap data, String keyPath) {
+        if (keyPath.isEmpty()) {
+            return "";
+        }
+        ReadableMap map = data;
+        String[] fields = keyPath.split("\\.");
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            if (map == null || !map.hasKey(field)) {
+                return "";
+            }
+            boolean last = i == fields.length - 1;
+            ReadableType type = map.getType(field);
+            if (last) {
+                return type == ReadableType.String ? map.getString(field) : "";
+            }
+            map = type == ReadableType.Map ? map.getMap(field) : null;
+        }
+        return "";
+    }
+}
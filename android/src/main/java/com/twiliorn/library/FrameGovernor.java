@@ -0,0 +1,208 @@
+/**
+ * Capture-side frame-rate governor that keeps the latency frames build up before encoding under
+ * a target.
+ * <p>
+ * It watches how long frames wait before they reach the capture thread, how long the processing
+ * pipeline takes per frame and, when stats are sampled, whether the encoder sends as many frames
+ * as are admitted. Frame timestamps are on the camera's clock, which may count deep sleep, so
+ * waiting is measured against the smallest arrival-minus-timestamp offset seen rather than
+ * against the capture thread's clock directly.
+ * <p>
+ * The sent frame rate also drops when WebRTC sheds frames for bandwidth, which fewer captured
+ * frames would not help, so it only counts against the rate while processing is loaded too.
+ * Over the target the admitted frame rate is cut multiplicatively, with headroom it is raised
+ * one frame per interval, and frames are dropped by spacing the admitted ones at that rate. The
+ * governor knows nothing about cameras or threads: callers pass the clock and drive evaluate, so
+ * any frame source, including a synthetic one, can exercise it.
+ */
+package com.twiliorn.library;
+
+public class FrameGovernor {
+    public static final String DECISION_HOLD = "hold";
+    public static final String DECISION_DECREASE = "decrease";
+    public static final String DECISION_INCREASE = "increase";
+    public static final double UNAVAILABLE = -1;
+
+    private static final double NANOS_PER_MS = 1000000.0;
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+    // A gap between frames this long means capture stopped, the two clocks may have drifted apart
+    private static final long REALIGN_GAP_NANOS = 1000000000L;
+    private static final double DECREASE_FACTOR = 0.75;
+    // The encoder is behind when it sends fewer than this share of the admitted frames
+    private static final double ENCODER_KEEP_UP_RATIO = 0.85;
+    // Share of the time between frames the capture path may spend on one frame
+    private static final double MAX_PROCESSING_UTILIZATION = 0.8;
+    private static final double INCREASE_PROCESSING_UTILIZATION = 0.5;
+    private static final double INCREASE_LATENCY_RATIO = 0.7;
+
+    public static class Config {
+        public long targetLatencyMs = 100;
+        public int minFps = 5;
+        public int maxFps = 30;
+        public long intervalMs = 1000;
+    }
+
+    /*
+     * Outcome of one evaluation, reused by the next.
+     */
+    public static class Metrics {
+        public double targetFps;
+        public double admittedFps;
+        public long framesCaptured;
+        public long framesDropped;
+        public double processingMs;
+        public double queueDelayMs;
+        public double encoderFps = UNAVAILABLE;
+        public double estimatedLatencyMs;
+        public String decision = DECISION_HOLD;
+    }
+
+    private final Config config;
+    private final Metrics metrics = new Metrics();
+    // Main thread, the rate frames are admitted at
+    private double targetFps;
+    // Read on the capture thread, 0 admits every frame
+    private volatile long minIntervalNanos = 0;
+    // Latest encoder send rate, consumed by evaluate so a stale sample is not used twice
+    private volatile double encoderFps = UNAVAILABLE;
+
+    // Capture thread counters, guarded by this
+    private boolean clockAligned = false;
+    // Arrival time minus frame timestamp of a frame that did not wait
+    private long clockOffsetNanos = 0;
+    private long lastArrivalNanos = 0;
+    private long nextDueNanos = 0;
+    private long framesCaptured = 0;
+    private long framesDropped = 0;
+    private long framesProcessed = 0;
+    private long processingNanos = 0;
+    private long queueDelayNanos = 0;
+    private long queueDelaySamples = 0;
+
+    public FrameGovernor(Config config) {
+        this.config = config;
+        this.targetFps = config.maxFps;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public double getTargetFps() {
+        return targetFps;
+    }
+
+    /*
+     * Capture thread, whether the frame captured at frameTimestampNanos should be passed on.
+     */
+    public synchronized boolean admit(long frameTimestampNanos, long nowNanos) {
+        framesCaptured++;
+        long offset = nowNanos - frameTimestampNanos;
+        if (!clockAligned || nowNanos - lastArrivalNanos > REALIGN_GAP_NANOS || offset < clockOffsetNanos) {
+            // The first frame, one after capture resumed, or one that waited less than the baseline
+            clockOffsetNanos = offset;
+            clockAligned = true;
+        }
+        lastArrivalNanos = nowNanos;
+        queueDelayNanos += offset - clockOffsetNanos;
+        queueDelaySamples++;
+
+        long interval = minIntervalNanos;
+        if (interval == 0) {
+            return true;
+        }
+        if (nextDueNanos - frameTimestampNanos > interval * 2) {
+            // Timestamps went back, a capturer on another clock took over
+            nextDueNanos = frameTimestampNanos;
+        }
+        // A quarter interval of tolerance so camera jitter does not drop frames that are due
+        if (frameTimestampNanos + interval / 4 < nextDueNanos) {
+            framesDropped++;
+            return false;
+        }
+        // Advance by the interval rather than from this frame, so the admitted rate averages out
+        nextDueNanos = Math.max(nextDueNanos + interval, frameTimestampNanos);
+        return true;
+    }
+
+    /*
+     * Capture thread, time an admitted frame spent in processing and handing it to the source.
+     */
+    public synchronized void onFrameProcessed(long nanos) {
+        framesProcessed++;
+        processingNanos += nanos;
+    }
+
+    /*
+     * Frame rate the local video track was sent at, from a stats sample.
+     */
+    public void onEncoderFrameRate(double fps) {
+        encoderFps = fps;
+    }
+
+    /*
+     * Adjust the target frame rate from what happened over the last intervalNanos.
+     */
+    public Metrics evaluate(long intervalNanos) {
+        long captured;
+        long dropped;
+        long processed;
+        long processing;
+        long queueDelay;
+        long queueDelayCount;
+        synchronized (this) {
+            captured = framesCaptured;
+            dropped = framesDropped;
+            processed = framesProcessed;
+            processing = processingNanos;
+            queueDelay = queueDelayNanos;
+            queueDelayCount = queueDelaySamples;
+            framesCaptured = 0;
+            framesDropped = 0;
+            framesProcessed = 0;
+            processingNanos = 0;
+            queueDelayNanos = 0;
+            queueDelaySamples = 0;
+        }
+        double encoder = encoderFps;
+        encoderFps = UNAVAILABLE;
+
+        Metrics m = metrics;
+        m.framesCaptured = captured;
+        m.framesDropped = dropped;
+        m.admittedFps = intervalNanos > 0 ? (captured - dropped) * NANOS_PER_SECOND / intervalNanos : 0;
+        m.processingMs = processed > 0 ? processing / NANOS_PER_MS / processed : 0;
+        m.queueDelayMs = queueDelayCount > 0 ? queueDelay / NANOS_PER_MS / queueDelayCount : 0;
+        m.encoderFps = encoder;
+        // A frame waits for the capture thread, is processed and then waits up to one encoder frame
+        m.estimatedLatencyMs = m.queueDelayMs + m.processingMs + (encoder > 0 ? 1000 / encoder : 0);
+
+        double utilization = m.processingMs * m.admittedFps / 1000;
+        // Without load on the capture path a low send rate is the network, not the device
+        boolean encoderBehind = encoder != UNAVAILABLE && m.admittedFps > 0
+                && encoder < m.admittedFps * ENCODER_KEEP_UP_RATIO
+                && utilization > INCREASE_PROCESSING_UTILIZATION;
+
+        if (m.estimatedLatencyMs > config.targetLatencyMs || encoderBehind
+                || utilization > MAX_PROCESSING_UTILIZATION) {
+            // Cut from what actually got through, the target may be above what the camera delivers
+            double base = m.admittedFps > 0 ? Math.min(targetFps, m.admittedFps) : targetFps;
+            setTargetFps(Math.max(config.minFps, base * DECREASE_FACTOR));
+            m.decision = DECISION_DECREASE;
+        } else if (targetFps < config.maxFps
+                && m.estimatedLatencyMs < config.targetLatencyMs * INCREASE_LATENCY_RATIO
+                && utilization < INCREASE_PROCESSING_UTILIZATION) {
+            setTargetFps(Math.min(config.maxFps, targetFps + 1));
+            m.decision = DECISION_INCREASE;
+        } else {
+            m.decision = DECISION_HOLD;
+        }
+        m.targetFps = targetFps;
+        return m;
+    }
+
+    private void setTargetFps(double fps) {
+        targetFps = fps;
+        minIntervalNanos = fps >= config.maxFps ? 0 : (long) (NANOS_PER_SECOND / fps);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Ordered chain of {@link FrameProcessor}s the captured local video passes through before it
+ * reaches the LocalVideoTrack.
+ * <p>
+ * Processors are registered by name and can be reordered or deactivated while capturing: the
+ * capture thread reads an immutable snapshot of the active stages, so a frame never sees a
+ * half-applied order. The time each stage takes is accumulated per frame for getStats.
+ */
+package com.twiliorn.library;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import tvi.webrtc.CapturerObserver;
+import tvi.webrtc.VideoFrame;
+
+public class FrameProcessingPipeline {
+    private static final double NANOS_PER_MS = 1000000.0;
+
+    public static class StageStats {
+        public final String name;
+        public final boolean active;
+        public final long frames;
+        public final double averageMs;
+        public final double maxMs;
+        public final double lastMs;
+
+        StageStats(String name, boolean active, long frames, double averageMs, double maxMs, double lastMs) {
+            this.name = name;
+            this.active = active;
+            this.frames = frames;
+            this.averageMs = averageMs;
+            this.maxMs = maxMs;
+            this.lastMs = lastMs;
+        }
+    }
+
+    private static final class Stage {
+        final FrameProcessor processor;
+        // Written on the capture thread, guarded by this
+        private long frames = 0;
+        private long totalNanos = 0;
+        private long maxNanos = 0;
+        private long lastNanos = 0;
+
+        Stage(FrameProcessor processor) {
+            this.processor = processor;
+        }
+
+        synchronized void record(long nanos) {
+            frames++;
+            totalNanos += nanos;
+            lastNanos = nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+
+        synchronized StageStats snapshot(boolean active, boolean reset) {
+            StageStats stats = new StageStats(processor.getName(), active, frames,
+                    frames > 0 ? totalNanos / NANOS_PER_MS / frames : 0,
+                    maxNanos / NANOS_PER_MS,
+                    lastNanos / NANOS_PER_MS);
+            if (reset) {
+                frames = 0;
+                totalNanos = 0;
+                maxNanos = 0;
+            }
+            return stats;
+        }
+    }
+
+    private final I420BufferPool pool = new I420BufferPool();
+    // Guarded by this, registered stages and the names of the active ones in order
+    private final Map<String, Stage> registered = new LinkedHashMap<>();
+    private final List<String> order = new ArrayList<>();
+    // Snapshot of the active stages read by the capture thread
+    private volatile Stage[] stages = new Stage[0];
+    private volatile FrameGovernor governor = null;
+
+    /*
+     * Admit frames through the governor before they are processed, null admits every frame.
+     */
+    public void setGovernor(FrameGovernor governor) {
+        this.governor = governor;
+    }
+
+    /*
+     * Register a processor and append it to the active stages, replacing one of the same name.
+     */
+    public synchronized void register(FrameProcessor processor) {
+        String name = processor.getName();
+        registered.put(name, new Stage(processor));
+        if (!order.contains(name)) {
+            order.add(name);
+        }
+        publish();
+    }
+
+    public synchronized void unregister(String name) {
+        registered.remove(name);
+        order.remove(name);
+        publish();
+    }
+
+    /*
+     * Run the named processors in the given order, registered processors left out are inactive.
+     * Unknown names are ignored.
+     */
+    public synchronized void setOrder(List<String> names) {
+        order.clear();
+        for (String name : names) {
+            if (registered.containsKey(name) && !order.contains(name)) {
+                order.add(name);
+            }
+        }
+        publish();
+    }
+
+    public synchronized List<String> getOrder() {
+        return Collections.unmodifiableList(new ArrayList<>(order));
+    }
+
+    /*
+     * Processing time of every registered stage, since the previous reset when reset is set.
+     */
+    public synchronized List<StageStats> getStats(boolean reset) {
+        List<StageStats> stats = new ArrayList<>(registered.size());
+        for (Map.Entry<String, Stage> entry : registered.entrySet()) {
+            stats.add(entry.getValue().snapshot(order.contains(entry.getKey()), reset));
+        }
+        return stats;
+    }
+
+    private void publish() {
+        Stage[] active = new Stage[order.size()];
+        for (int i = 0; i < active.length; i++) {
+            active[i] = registered.get(order.get(i));
+        }
+        stages = active;
+    }
+
+    /*
+     * Capture thread, run the frame through the active stages and hand the result to observer.
+     */
+    void process(VideoFrame frame, CapturerObserver observer) {
+        FrameGovernor governor = this.governor;
+        long processingStart = System.nanoTime();
+        if (governor != null && !governor.admit(frame.getTimestampNs(), processingStart)) {
+            return;
+        }
+        Stage[] stages = this.stages;
+        VideoFrame current = frame;
+        for (Stage stage : stages) {
+            long start = System.nanoTime();
+            VideoFrame next = stage.processor.process(current, pool);
+            stage.record(System.nanoTime() - start);
+            if (next != current && current != frame) {
+                // An intermediate frame of an earlier stage
+                current.release();
+            }
+            if (next == null) {
+                return;
+            }
+            current = next;
+        }
+        observer.onFrameCaptured(current);
+        if (current != frame) {
+            current.release();
+        }
+        if (governor != null) {
+            governor.onFrameProcessed(System.nanoTime() - processingStart);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * A stage of the local video processing pipeline, see {@link FrameProcessingPipeline}.
+ */
+package com.twiliorn.library;
+
+import tvi.webrtc.VideoFrame;
+
+public interface FrameProcessor {
+    /*
+     * Name the stage is ordered and reported by, unique within a pipeline.
+     */
+    String getName();
+
+    /*
+     * Called on the capture thread for every frame. Return the frame to pass it on unchanged, a
+     * new frame to replace it, or null to drop it. The input must not be released, a returned
+     * new frame is released by the pipeline once the next stage is done with it. Pixel buffers
+     * for new frames should come from the pool so they are reused between frames.
+     */
+    VideoFrame process(VideoFrame frame, I420BufferPool pool);
+}
@@ -0,0 +1,87 @@
+/**
+ * Reusable I420 pixel buffers for frame processors.
+ * <p>
+ * A released buffer goes back to the pool instead of being freed, so a processor producing a
+ * new frame per captured frame does not allocate pixel memory once the pool is warm. The pool
+ * holds one resolution, buffers of a previous resolution are dropped as they come back.
+ */
+package com.twiliorn.library;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import tvi.webrtc.JavaI420Buffer;
+
+public class I420BufferPool {
+    // Frames in flight are encoded asynchronously, a few buffers cover the pipeline depth
+    private static final int MAX_FREE_BUFFERS = 4;
+
+    private final class PooledBuffer implements Runnable {
+        final int width;
+        final int height;
+        final ByteBuffer dataY;
+        final ByteBuffer dataU;
+        final ByteBuffer dataV;
+
+        PooledBuffer(int width, int height) {
+            this.width = width;
+            this.height = height;
+            int chromaStride = chromaSize(width);
+            int chromaPlaneSize = chromaStride * chromaSize(height);
+            // One allocation holding the three planes back to back
+            ByteBuffer data = ByteBuffer.allocateDirect(width * height + 2 * chromaPlaneSize);
+            dataY = slice(data, 0, width * height);
+            dataU = slice(data, width * height, chromaPlaneSize);
+            dataV = slice(data, width * height + chromaPlaneSize, chromaPlaneSize);
+        }
+
+        // Release callback of the wrapping JavaI420Buffer, on whichever thread released it last
+        @Override
+        public void run() {
+            recycle(this);
+        }
+    }
+
+    private final ArrayDeque<PooledBuffer> free = new ArrayDeque<>();
+    private int width = 0;
+    private int height = 0;
+
+    /*
+     * A buffer of the given size, its contents are whatever the previous frame left in it.
+     */
+    public synchronized JavaI420Buffer acquire(int width, int height) {
+        if (width != this.width || height != this.height) {
+            free.clear();
+            this.width = width;
+            this.height = height;
+        }
+        PooledBuffer buffer = free.poll();
+        if (buffer == null) {
+            buffer = new PooledBuffer(width, height);
+        }
+        return JavaI420Buffer.wrap(width, height,
+                buffer.dataY, width,
+                buffer.dataU, chromaSize(width),
+                buffer.dataV, chromaSize(width),
+                buffer);
+    }
+
+    private synchronized void recycle(PooledBuffer buffer) {
+        if (buffer.width == width && buffer.height == height && free.size() < MAX_FREE_BUFFERS) {
+            free.push(buffer);
+        }
+    }
+
+    private static int chromaSize(int size) {
+        return (size + 1) / 2;
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int offset, int length) {
+        data.clear();
+        data.position(offset);
+        data.limit(offset + length);
+        ByteBuffer plane = data.slice();
+        data.clear();
+        return plane;
+    }
+}
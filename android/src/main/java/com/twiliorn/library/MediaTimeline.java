@@ -0,0 +1,110 @@
+/**
+ * Monotonic timestamps of the steps between starting to connect and rendering remote media,
+ * reported once per track when its media is first available.
+ * <p>
+ * All methods must be called on the main thread.
+ */
+package com.twiliorn.library;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MediaTimeline {
+    public static final long UNSET = -1;
+
+    public interface Listener {
+        /*
+         * Video tracks report on their first rendered frame, audio tracks on subscription.
+         */
+        void onTrackTimings(MediaTimeline timeline, TrackTimings timings);
+    }
+
+    public static class TrackTimings {
+        public final String trackSid;
+        public final String kind;
+        public long subscribedMs = UNSET;
+        public long sinkAttachedMs = UNSET;
+        public long firstFrameMs = UNSET;
+        private boolean reported = false;
+
+        TrackTimings(String trackSid, String kind) {
+            this.trackSid = trackSid;
+            this.kind = kind;
+        }
+    }
+
+    private Listener listener;
+    private long connectStartMs = UNSET;
+    private long connectedMs = UNSET;
+    private final Map<String, TrackTimings> tracks = new HashMap<>();
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public long getConnectStartMs() {
+        return connectStartMs;
+    }
+
+    public long getConnectedMs() {
+        return connectedMs;
+    }
+
+    public void markConnectStart() {
+        tracks.clear();
+        connectStartMs = SystemClock.elapsedRealtime();
+        connectedMs = UNSET;
+    }
+
+    public void markConnected() {
+        connectedMs = SystemClock.elapsedRealtime();
+    }
+
+    public void markSubscribed(String trackSid, String kind) {
+        // A resubscribed track is measured again
+        TrackTimings timings = new TrackTimings(trackSid, kind);
+        timings.subscribedMs = SystemClock.elapsedRealtime();
+        tracks.put(trackSid, timings);
+        if (StatsSampler.KIND_AUDIO.equals(kind)) {
+            report(timings);
+        }
+    }
+
+    public void markUnsubscribed(String trackSid) {
+        tracks.remove(trackSid);
+    }
+
+    /*
+     * Only the first sink counts, later views of the same track are not part of joining.
+     */
+    public void markSinkAttached(String trackSid) {
+        TrackTimings timings = tracks.get(trackSid);
+        if (timings != null && timings.sinkAttachedMs == UNSET) {
+            timings.sinkAttachedMs = SystemClock.elapsedRealtime();
+        }
+    }
+
+    public void markFirstFrame(String trackSid) {
+        TrackTimings timings = tracks.get(trackSid);
+        if (timings != null && timings.firstFrameMs == UNSET) {
+            timings.firstFrameMs = SystemClock.elapsedRealtime();
+            report(timings);
+        }
+    }
+
+    public void clear() {
+        tracks.clear();
+        connectStartMs = UNSET;
+        connectedMs = UNSET;
+    }
+
+    private void report(TrackTimings timings) {
+        if (timings.reported || listener == null) {
+            return;
+        }
+        timings.reported = true;
+        listener.onTrackTimings(this, timings);
+    }
+}
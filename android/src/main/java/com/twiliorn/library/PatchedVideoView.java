@@ -21,8 +21,11 @@ import tvi.webrtc.VideoFrame;
  */
 public class PatchedVideoView extends VideoView {
 
-    private boolean notifyFrameRendered = false;
-    private Listener listener;
+    // Set on the main thread, read on the render thread
+    private volatile boolean notifyFrameRendered = false;
+    private volatile Listener listener;
+    private volatile Listener viewListener;
+    private volatile RenderMonitor renderMonitor;
     private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
 
     public PatchedVideoView(Context context) {
@@ -35,18 +38,38 @@ public class PatchedVideoView extends VideoView {
 
     @Override
     public void onFrame(VideoFrame frame) {
+        RenderMonitor monitor = renderMonitor;
+        if (monitor != null) {
+            monitor.onFrameReceived();
+        }
         if (notifyFrameRendered) {
             notifyFrameRendered = false;
-            mainThreadHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    listener.onFirstFrame();
-                }
-            });
+            final Listener listener = this.listener;
+            final Listener viewListener = this.viewListener;
+            if (listener != null || viewListener != null) {
+                mainThreadHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (listener != null) {
+                            listener.onFirstFrame();
+                        }
+                        if (viewListener != null) {
+                            viewListener.onFirstFrame();
+                        }
+                    }
+                });
+            }
         }
         super.onFrame(frame);
     }
 
+    /*
+     * Count frames and gaps for the monitor, null turns monitoring off.
+     */
+    public void setRenderMonitor(RenderMonitor renderMonitor) {
+        this.renderMonitor = renderMonitor;
+    }
+
     /*
      * Set your listener
      */
@@ -54,6 +77,13 @@ public class PatchedVideoView extends VideoView {
         this.listener = listener;
     }
 
+    /*
+     * Listener of the view hosting this one, notified along with the listener set by the sink owner
+     */
+    public void setViewListener(Listener viewListener) {
+        this.viewListener = viewListener;
+    }
+
     /*
      * Reset the listener so next frame rendered results in callback
      */
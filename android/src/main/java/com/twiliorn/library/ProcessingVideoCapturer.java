@@ -0,0 +1,77 @@
+/**
+ * Capturer handed to LocalVideoTrack that runs the frames of the camera capturer through a
+ * {@link FrameProcessingPipeline}.
+ * <p>
+ * Only the observer is intercepted, the camera capturer itself is still driven directly for
+ * start, stop, format changes and camera switches.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+
+import com.twilio.video.VideoCapturer;
+import com.twilio.video.VideoFormat;
+
+import tvi.webrtc.CapturerObserver;
+import tvi.webrtc.SurfaceTextureHelper;
+import tvi.webrtc.VideoFrame;
+
+public class ProcessingVideoCapturer implements VideoCapturer {
+    private final VideoCapturer capturer;
+    private final FrameProcessingPipeline pipeline;
+
+    public ProcessingVideoCapturer(VideoCapturer capturer, FrameProcessingPipeline pipeline) {
+        this.capturer = capturer;
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public void initialize(SurfaceTextureHelper surfaceTextureHelper, Context context, final CapturerObserver observer) {
+        capturer.initialize(surfaceTextureHelper, context, new CapturerObserver() {
+            @Override
+            public void onCapturerStarted(boolean success) {
+                observer.onCapturerStarted(success);
+            }
+
+            @Override
+            public void onCapturerStopped() {
+                observer.onCapturerStopped();
+            }
+
+            @Override
+            public void onFrameCaptured(VideoFrame frame) {
+                pipeline.process(frame, observer);
+            }
+        });
+    }
+
+    @Override
+    public VideoFormat getCaptureFormat() {
+        return capturer.getCaptureFormat();
+    }
+
+    @Override
+    public void startCapture(int width, int height, int framerate) {
+        capturer.startCapture(width, height, framerate);
+    }
+
+    @Override
+    public void stopCapture() throws InterruptedException {
+        capturer.stopCapture();
+    }
+
+    @Override
+    public void changeCaptureFormat(int width, int height, int framerate) {
+        capturer.changeCaptureFormat(width, height, framerate);
+    }
+
+    @Override
+    public void dispose() {
+        capturer.dispose();
+    }
+
+    @Override
+    public boolean isScreencast() {
+        return capturer.isScreencast();
+    }
+}
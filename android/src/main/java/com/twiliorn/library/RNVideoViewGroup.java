@@ -12,7 +12,9 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.support.annotation.StringDef;
 
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
@@ -25,6 +27,10 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 import static com.twiliorn.library.RNVideoViewGroup.Events.ON_FRAME_DIMENSIONS_CHANGED;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_STATS;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_FREEZE;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_FREEZE_ENDED;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_FIRST_FRAME;
 
 public class RNVideoViewGroup extends ViewGroup {
     private PatchedVideoView surfaceViewRenderer = null;
@@ -33,11 +39,18 @@ public class RNVideoViewGroup extends ViewGroup {
     private final Object layoutSync = new Object();
     private RendererCommon.ScalingType scalingType = RendererCommon.ScalingType.SCALE_ASPECT_FILL;
     private final RCTEventEmitter eventEmitter;
+    private RenderMonitor renderMonitor = null;
+    private boolean attachedToWindow = false;
+    private boolean renderingPaused = false;
 
     @Retention(RetentionPolicy.SOURCE)
-    @StringDef({ON_FRAME_DIMENSIONS_CHANGED})
+    @StringDef({ON_FRAME_DIMENSIONS_CHANGED, ON_RENDER_STATS, ON_RENDER_FREEZE, ON_RENDER_FREEZE_ENDED, ON_FIRST_FRAME})
     public @interface Events {
         String ON_FRAME_DIMENSIONS_CHANGED = "onFrameDimensionsChanged";
+        String ON_RENDER_STATS = "onRenderStats";
+        String ON_RENDER_FREEZE = "onRenderFreeze";
+        String ON_RENDER_FREEZE_ENDED = "onRenderFreezeEnded";
+        String ON_FIRST_FRAME = "onFirstFrame";
     }
 
     void pushEvent(View view, String name, WritableMap data) {
@@ -88,6 +101,96 @@ public class RNVideoViewGroup extends ViewGroup {
         this.scalingType = scalingType;
     }
 
+    /*
+     * Emit render summaries every intervalMs and a freeze event once no frame arrived for
+     * freezeThresholdMs, intervalMs of 0 turns the monitor off.
+     */
+    public void setRenderMonitor(long intervalMs, long freezeThresholdMs) {
+        if (renderMonitor != null) {
+            renderMonitor.stop();
+            surfaceViewRenderer.setRenderMonitor(null);
+            renderMonitor = null;
+        }
+        if (intervalMs <= 0) {
+            return;
+        }
+        renderMonitor = new RenderMonitor(intervalMs, freezeThresholdMs, new RenderMonitor.Listener() {
+            @Override
+            public void onSummary(RenderMonitor monitor) {
+                WritableArray histogram = new WritableNativeArray();
+                for (int count : monitor.getGapHistogram()) {
+                    histogram.pushInt(count);
+                }
+                WritableArray buckets = new WritableNativeArray();
+                for (int bucketMs : RenderMonitor.GAP_BUCKETS_MS) {
+                    buckets.pushInt(bucketMs);
+                }
+                WritableMap event = new WritableNativeMap();
+                event.putDouble("intervalMs", monitor.getIntervalMs());
+                event.putDouble("frameRate", monitor.getFrameRate());
+                event.putDouble("framesReceived", monitor.getFramesReceived());
+                event.putDouble("longestGapMs", monitor.getLongestGapMs());
+                event.putArray("gapHistogram", histogram);
+                event.putArray("gapBucketsMs", buckets);
+                event.putDouble("longestFreezeMs", monitor.getLongestFreezeMs());
+                event.putInt("freezeCount", monitor.getFreezeCount());
+                pushEvent(RNVideoViewGroup.this, ON_RENDER_STATS, event);
+            }
+
+            @Override
+            public void onFreeze(long frozenMs) {
+                WritableMap event = new WritableNativeMap();
+                event.putDouble("frozenMs", frozenMs);
+                pushEvent(RNVideoViewGroup.this, ON_RENDER_FREEZE, event);
+            }
+
+            @Override
+            public void onFreezeEnded(long freezeMs) {
+                WritableMap event = new WritableNativeMap();
+                event.putDouble("freezeMs", freezeMs);
+                pushEvent(RNVideoViewGroup.this, ON_RENDER_FREEZE_ENDED, event);
+            }
+        });
+        surfaceViewRenderer.setRenderMonitor(renderMonitor);
+        if (attachedToWindow && !renderingPaused) {
+            renderMonitor.start();
+        }
+    }
+
+    /*
+     * A paused view is not sent frames, so its monitor is stopped rather than reporting a freeze.
+     */
+    protected void setRenderingPaused(boolean paused) {
+        renderingPaused = paused;
+        if (renderMonitor == null) {
+            return;
+        }
+        if (paused) {
+            renderMonitor.stop();
+        } else if (attachedToWindow) {
+            renderMonitor.start();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attachedToWindow = true;
+        if (renderMonitor != null && !renderingPaused) {
+            renderMonitor.start();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attachedToWindow = false;
+        if (renderMonitor != null) {
+            // A detached view is not expected to receive frames, that is no freeze
+            renderMonitor.stop();
+        }
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         int height = b - t;
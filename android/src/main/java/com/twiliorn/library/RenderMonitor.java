@@ -0,0 +1,191 @@
+/**
+ * Frame-rate and jank monitor for one video view.
+ * <p>
+ * The frame path only updates primitive counters, so it does not allocate. A main-thread
+ * watchdog publishes periodic summaries and detects freezes, which lets JS tell a stalled
+ * decoder or network from a view that is simply not rendering.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.Looper;
+
+public class RenderMonitor {
+    // Upper bounds of the inter-frame gap histogram buckets, the last bucket holds longer gaps
+    public static final int[] GAP_BUCKETS_MS = {16, 33, 50, 100, 200, 500};
+    private static final long NANOS_PER_MS = 1000000L;
+
+    public interface Listener {
+        void onSummary(RenderMonitor monitor);
+
+        void onFreeze(long frozenMs);
+
+        void onFreezeEnded(long freezeMs);
+    }
+
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long intervalMs;
+    private final long freezeThresholdNanos;
+    private final long checkIntervalMs;
+
+    // Written on the frame thread, guarded by this
+    private final int[] gapHistogram = new int[GAP_BUCKETS_MS.length + 1];
+    private long framesReceived = 0;
+    private long lastFrameNanos = 0;
+    private long longestGapNanos = 0;
+    private long freezeGapNanos = 0;
+
+    // Main thread only
+    private final int[] summaryGapHistogram = new int[GAP_BUCKETS_MS.length + 1];
+    private long summaryFramesReceived;
+    private long summaryLongestGapMs;
+    private long summaryIntervalMs;
+    private long longestFreezeMs = 0;
+    private int freezeCount = 0;
+    private boolean frozen = false;
+    private long lastSummaryNanos;
+    private boolean running = false;
+
+    public RenderMonitor(long intervalMs, long freezeThresholdMs, Listener listener) {
+        this.listener = listener;
+        this.intervalMs = intervalMs;
+        this.freezeThresholdNanos = freezeThresholdMs * NANOS_PER_MS;
+        this.checkIntervalMs = Math.max(16, Math.min(intervalMs, freezeThresholdMs / 2));
+    }
+
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        synchronized (this) {
+            // Time spent stopped is neither a gap nor a freeze
+            lastFrameNanos = 0;
+        }
+        frozen = false;
+        lastSummaryNanos = System.nanoTime();
+        handler.postDelayed(watchdog, checkIntervalMs);
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(watchdog);
+    }
+
+    /*
+     * Frame thread, every frame delivered to the view. The renderer queues frames and does not
+     * report which ones it drew, so only delivery is counted.
+     */
+    public synchronized void onFrameReceived() {
+        long now = System.nanoTime();
+        framesReceived++;
+        if (lastFrameNanos != 0) {
+            long gap = now - lastFrameNanos;
+            gapHistogram[bucketFor(gap / NANOS_PER_MS)]++;
+            if (gap > longestGapNanos) {
+                longestGapNanos = gap;
+            }
+            if (gap > freezeGapNanos && gap >= freezeThresholdNanos) {
+                freezeGapNanos = gap;
+            }
+        }
+        lastFrameNanos = now;
+    }
+
+    public long getFramesReceived() {
+        return summaryFramesReceived;
+    }
+
+    public long getIntervalMs() {
+        return summaryIntervalMs;
+    }
+
+    public double getFrameRate() {
+        return summaryIntervalMs > 0 ? summaryFramesReceived * 1000.0 / summaryIntervalMs : 0;
+    }
+
+    public long getLongestGapMs() {
+        return summaryLongestGapMs;
+    }
+
+    public int[] getGapHistogram() {
+        return summaryGapHistogram;
+    }
+
+    public long getLongestFreezeMs() {
+        return longestFreezeMs;
+    }
+
+    public int getFreezeCount() {
+        return freezeCount;
+    }
+
+    private final Runnable watchdog = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) {
+                return;
+            }
+            check(System.nanoTime());
+            handler.postDelayed(this, checkIntervalMs);
+        }
+    };
+
+    private void check(long now) {
+        long lastFrame;
+        long freezeGap;
+        synchronized (this) {
+            lastFrame = lastFrameNanos;
+            freezeGap = freezeGapNanos;
+            freezeGapNanos = 0;
+        }
+
+        if (frozen && freezeGap > 0) {
+            frozen = false;
+            long freezeMs = freezeGap / NANOS_PER_MS;
+            longestFreezeMs = Math.max(longestFreezeMs, freezeMs);
+            listener.onFreezeEnded(freezeMs);
+        } else if (!frozen && freezeGap > 0) {
+            // Started and ended between two checks
+            freezeCount++;
+            longestFreezeMs = Math.max(longestFreezeMs, freezeGap / NANOS_PER_MS);
+        }
+
+        // Before the first frame there is nothing to freeze
+        if (!frozen && lastFrame != 0 && now - lastFrame >= freezeThresholdNanos) {
+            frozen = true;
+            freezeCount++;
+            listener.onFreeze((now - lastFrame) / NANOS_PER_MS);
+        }
+
+        if (now - lastSummaryNanos >= intervalMs * NANOS_PER_MS) {
+            summarize(now);
+            listener.onSummary(this);
+        }
+    }
+
+    private void summarize(long now) {
+        synchronized (this) {
+            summaryFramesReceived = framesReceived;
+            summaryLongestGapMs = longestGapNanos / NANOS_PER_MS;
+            System.arraycopy(gapHistogram, 0, summaryGapHistogram, 0, gapHistogram.length);
+            framesReceived = 0;
+            longestGapNanos = 0;
+            for (int i = 0; i < gapHistogram.length; i++) {
+                gapHistogram[i] = 0;
+            }
+        }
+        summaryIntervalMs = (now - lastSummaryNanos) / NANOS_PER_MS;
+        lastSummaryNanos = now;
+    }
+
+    private static int bucketFor(long gapMs) {
+        for (int i = 0; i < GAP_BUCKETS_MS.length; i++) {
+            if (gapMs <= GAP_BUCKETS_MS[i]) {
+                return i;
+            }
+        }
+        return GAP_BUCKETS_MS.length;
+    }
+}
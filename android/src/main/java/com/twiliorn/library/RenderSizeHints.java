@@ -0,0 +1,125 @@
+/**
+ * Aggregates the laid-out size and visibility of every remote view bound to a track
+ * and derives the subscription priority that matches what is actually drawn.
+ */
+package com.twiliorn.library;
+
+import com.twilio.video.TrackPriority;
+import com.twilio.video.VideoDimensions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class RenderSizeHints {
+    // Twilio's default render dimensions for each priority
+    private static final VideoDimensions DEFAULT_LOW_DIMENSIONS = new VideoDimensions(176, 144);
+    private static final VideoDimensions DEFAULT_STANDARD_DIMENSIONS = new VideoDimensions(640, 480);
+
+    public interface Listener {
+        void onRenderHintChanged(String trackSid, TrackPriority priority, int width, int height);
+    }
+
+    private static class ViewSize {
+        String trackSid;
+        int width;
+        int height;
+        boolean visible;
+    }
+
+    private final Listener listener;
+    private final Map<Object, ViewSize> viewSizes = new HashMap<>();
+    private final Map<String, TrackPriority> trackPriorities = new HashMap<>();
+    private int lowArea = area(DEFAULT_LOW_DIMENSIONS);
+    private int standardArea = area(DEFAULT_STANDARD_DIMENSIONS);
+
+    public RenderSizeHints(Listener listener) {
+        this.listener = listener;
+    }
+
+    /*
+     * Use the render dimensions of the bandwidth profile as the priority thresholds.
+     */
+    public void setRenderDimensions(Map<TrackPriority, VideoDimensions> renderDimensions) {
+        VideoDimensions low = renderDimensions.get(TrackPriority.LOW);
+        VideoDimensions standard = renderDimensions.get(TrackPriority.STANDARD);
+        lowArea = area(low != null ? low : DEFAULT_LOW_DIMENSIONS);
+        standardArea = area(standard != null ? standard : DEFAULT_STANDARD_DIMENSIONS);
+    }
+
+    public void update(Object view, String trackSid, int width, int height, boolean visible) {
+        ViewSize size = viewSizes.get(view);
+        if (size == null) {
+            size = new ViewSize();
+            viewSizes.put(view, size);
+        }
+        String previousTrackSid = size.trackSid;
+        size.trackSid = trackSid;
+        size.width = width;
+        size.height = height;
+        size.visible = visible;
+
+        if (previousTrackSid != null && !previousTrackSid.equals(trackSid)) {
+            recompute(previousTrackSid);
+        }
+        if (trackSid != null) {
+            recompute(trackSid);
+        }
+    }
+
+    public void remove(Object view) {
+        ViewSize size = viewSizes.remove(view);
+        if (size != null && size.trackSid != null) {
+            recompute(size.trackSid);
+        }
+    }
+
+    /*
+     * Last derived priority for the track, or null when no view has reported for it.
+     */
+    public TrackPriority getPriority(String trackSid) {
+        return trackPriorities.get(trackSid);
+    }
+
+    private void recompute(String trackSid) {
+        boolean hasView = false;
+        int width = 0;
+        int height = 0;
+        for (ViewSize size : viewSizes.values()) {
+            if (!trackSid.equals(size.trackSid)) {
+                continue;
+            }
+            hasView = true;
+            if (size.visible && size.width * size.height > width * height) {
+                width = size.width;
+                height = size.height;
+            }
+        }
+
+        if (!hasView) {
+            trackPriorities.remove(trackSid);
+            return;
+        }
+
+        TrackPriority priority = priorityFor(width * height);
+        if (priority != trackPriorities.put(trackSid, priority)) {
+            listener.onRenderHintChanged(trackSid, priority, width, height);
+        }
+    }
+
+    /*
+     * Off-screen and 0x0 views fall to LOW so they are the first to be switched off.
+     */
+    private TrackPriority priorityFor(int area) {
+        if (area <= lowArea) {
+            return TrackPriority.LOW;
+        }
+        if (area <= standardArea) {
+            return TrackPriority.STANDARD;
+        }
+        return TrackPriority.HIGH;
+    }
+
+    private static int area(VideoDimensions dimensions) {
+        return dimensions.width * dimensions.height;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Rotates frames by a multiple of 90 degrees through their rotation metadata, so the pixels are
+ * only turned once, by whichever renderer or encoder consumes the frame.
+ */
+package com.twiliorn.library;
+
+import tvi.webrtc.VideoFrame;
+
+public class RotationProcessor implements FrameProcessor {
+    private final String name;
+    private volatile int degrees;
+
+    public RotationProcessor(String name, int degrees) {
+        this.name = name;
+        setDegrees(degrees);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /*
+     * Clockwise, rounded down to a multiple of 90.
+     */
+    public void setDegrees(int degrees) {
+        this.degrees = ((degrees / 90) % 4 + 4) % 4 * 90;
+    }
+
+    @Override
+    public VideoFrame process(VideoFrame frame, I420BufferPool pool) {
+        int degrees = this.degrees;
+        if (degrees == 0) {
+            return frame;
+        }
+        // The new frame shares the buffer, and releasing it releases one reference
+        frame.getBuffer().retain();
+        return new VideoFrame(frame.getBuffer(), (frame.getRotation() + degrees) % 360, frame.getTimestampNs());
+    }
+}
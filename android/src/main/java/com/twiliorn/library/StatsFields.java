@@ -0,0 +1,63 @@
+/**
+ * Field groups of a stats report, combined into a mask so getStats only serializes what the
+ * caller asked for.
+ */
+package com.twiliorn.library;
+
+import java.util.Locale;
+
+public final class StatsFields {
+    // codec, packetsLost, ssrc, timestamp and trackSid
+    public static final int BASE = 1;
+    // bytes and packets sent or received
+    public static final int TRANSPORT = 1 << 1;
+    // roundTripTime of local tracks
+    public static final int ROUND_TRIP_TIME = 1 << 2;
+    // audioLevel and jitter
+    public static final int AUDIO = 1 << 3;
+    // sent or received dimensions and frameRate
+    public static final int DIMENSIONS = 1 << 4;
+    // captureDimensions and capturedFrameRate of local video tracks
+    public static final int CAPTURE = 1 << 5;
+    public static final int CANDIDATE_PAIRS = 1 << 6;
+    public static final int CANDIDATES = 1 << 7;
+
+    // What getStats reported before fields could be selected
+    public static final int DEFAULT = BASE | TRANSPORT | ROUND_TRIP_TIME | AUDIO | DIMENSIONS;
+    public static final int ALL = DEFAULT | CAPTURE | CANDIDATE_PAIRS | CANDIDATES;
+
+    private StatsFields() {
+    }
+
+    /*
+     * Mask bit of a field group name as used from JS, 0 for unknown names.
+     */
+    public static int forName(String name) {
+        switch (name.toLowerCase(Locale.US)) {
+            case "base":
+                return BASE;
+            case "transport":
+                return TRANSPORT;
+            case "roundtriptime":
+                return ROUND_TRIP_TIME;
+            case "audio":
+                return AUDIO;
+            case "dimensions":
+                return DIMENSIONS;
+            case "capture":
+                return CAPTURE;
+            case "candidatepairs":
+                return CANDIDATE_PAIRS;
+            case "candidates":
+                return CANDIDATES;
+            case "all":
+                return ALL;
+            default:
+                return 0;
+        }
+    }
+
+    public static boolean has(int mask, int field) {
+        return (mask & field) != 0;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Fixed-size history of sampled track metrics for post-call summaries.
+ * <p>
+ * Each metric of each track is a primitive ring buffer, so memory stays constant however long
+ * the call runs: the oldest samples are overwritten and the least recently sampled track is
+ * forgotten once {@link #MAX_TRACKS} are held.
+ */
+package com.twiliorn.library;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StatsHistory {
+    public static final int MAX_TRACKS = 32;
+
+    public static final int ROUND_TRIP_TIME = 0;
+    public static final int JITTER = 1;
+    public static final int PACKET_LOSS = 2;
+    public static final int FRAME_RATE = 3;
+    public static final int BITRATE = 4;
+    public static final String[] METRIC_NAMES = {"roundTripTime", "jitter", "packetLoss", "frameRate", "bitrate"};
+
+    public static class Summary {
+        public int count;
+        public double min;
+        public double max;
+        public double mean;
+        public double p50;
+        public double p95;
+    }
+
+    public static class TrackHistory {
+        public final String trackSid;
+        public final String kind;
+        public final String direction;
+        private final double[][] rings;
+        private final int[] counts = new int[METRIC_NAMES.length];
+        private final int[] heads = new int[METRIC_NAMES.length];
+
+        TrackHistory(String trackSid, String kind, String direction, int capacity) {
+            this.trackSid = trackSid;
+            this.kind = kind;
+            this.direction = direction;
+            this.rings = new double[METRIC_NAMES.length][capacity];
+        }
+
+        void add(int metric, double value) {
+            double[] ring = rings[metric];
+            ring[heads[metric]] = value;
+            heads[metric] = (heads[metric] + 1) % ring.length;
+            if (counts[metric] < ring.length) {
+                counts[metric]++;
+            }
+        }
+    }
+
+    private final int capacity;
+    // Scratch space for sorting, so summaries do not allocate per metric
+    private final double[] scratch;
+    private final LinkedHashMap<String, TrackHistory> tracks =
+            new LinkedHashMap<String, TrackHistory>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TrackHistory> eldest) {
+                    return size() > MAX_TRACKS;
+                }
+            };
+
+    public StatsHistory(int capacity) {
+        this.capacity = capacity;
+        this.scratch = new double[capacity];
+    }
+
+    public void record(StatsSampler.TrackRates rates) {
+        String key = rates.direction + ":" + rates.trackSid;
+        TrackHistory history = tracks.get(key);
+        if (history == null) {
+            history = new TrackHistory(rates.trackSid, rates.kind, rates.direction, capacity);
+            tracks.put(key, history);
+        }
+        history.add(BITRATE, rates.bitrateKbps);
+        history.add(PACKET_LOSS, rates.packetLossPercent);
+        if (rates.roundTripTimeMs != StatsSampler.UNAVAILABLE) {
+            history.add(ROUND_TRIP_TIME, rates.roundTripTimeMs);
+        }
+        if (rates.jitter != StatsSampler.UNAVAILABLE) {
+            history.add(JITTER, rates.jitter);
+        }
+        if (rates.frameRate != StatsSampler.UNAVAILABLE) {
+            history.add(FRAME_RATE, rates.frameRate);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Iterable<TrackHistory> getTracks() {
+        return tracks.values();
+    }
+
+    public boolean isEmpty() {
+        return tracks.isEmpty();
+    }
+
+    public void clear() {
+        tracks.clear();
+    }
+
+    /*
+     * Summarize one metric of a track into the given summary, returns false when it has no samples.
+     */
+    public boolean summarize(TrackHistory history, int metric, Summary summary) {
+        int count = history.counts[metric];
+        if (count == 0) {
+            return false;
+        }
+        // Until the ring wraps its samples are the first count slots, afterwards all of them
+        System.arraycopy(history.rings[metric], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += scratch[i];
+        }
+        summary.count = count;
+        summary.min = scratch[0];
+        summary.max = scratch[count - 1];
+        summary.mean = sum / count;
+        summary.p50 = percentile(count, 0.50);
+        summary.p95 = percentile(count, 0.95);
+        return true;
+    }
+
+    /*
+     * Nearest-rank percentile of the sorted scratch samples.
+     */
+    private double percentile(int count, double fraction) {
+        int rank = (int) Math.ceil(fraction * count);
+        return scratch[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
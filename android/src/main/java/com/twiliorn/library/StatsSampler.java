@@ -0,0 +1,214 @@
+/**
+ * Polls Room.getStats on an interval and turns the cumulative counters of every track into
+ * rates between consecutive samples, so JS only receives the derived metrics.
+ */
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.twilio.video.BaseTrackStats;
+import com.twilio.video.LocalAudioTrackStats;
+import com.twilio.video.LocalVideoTrackStats;
+import com.twilio.video.RemoteAudioTrackStats;
+import com.twilio.video.RemoteVideoTrackStats;
+import com.twilio.video.Room;
+import com.twilio.video.StatsListener;
+import com.twilio.video.StatsReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class StatsSampler {
+    public static final String KIND_AUDIO = "audio";
+    public static final String KIND_VIDEO = "video";
+    public static final String DIRECTION_SEND = "send";
+    public static final String DIRECTION_RECEIVE = "receive";
+    // Value of the metrics a track kind or direction does not report
+    public static final int UNAVAILABLE = -1;
+
+    public interface Listener {
+        /*
+         * Rates of every track seen in at least two consecutive samples. The list and its
+         * entries are reused by the next sample.
+         */
+        void onSample(List<TrackRates> rates);
+    }
+
+    public static class TrackRates {
+        public String trackSid;
+        public String kind;
+        public String direction;
+        public long intervalMs;
+        public double bitrateKbps;
+        public double packetLossPercent;
+        public int frameRate = UNAVAILABLE;
+        public long roundTripTimeMs = UNAVAILABLE;
+        public long roundTripTimeDeltaMs = 0;
+        public int jitter = UNAVAILABLE;
+        public int jitterDelta = 0;
+
+        // Counters of the previous sample
+        private boolean hasPrevious = false;
+        private long previousTimeMs;
+        private long previousBytes;
+        private long previousPackets;
+        private long previousPacketsLost;
+        private int generation;
+    }
+
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Keyed by peer connection and track, a track can be sent on several P2P connections
+    private final Map<String, TrackRates> tracks = new HashMap<>();
+    private final List<TrackRates> sample = new ArrayList<>();
+    private Room room;
+    private long intervalMs;
+    private int generation = 0;
+    private boolean running = false;
+
+    public StatsSampler(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void start(Room room, long intervalMs) {
+        stop();
+        this.room = room;
+        this.intervalMs = intervalMs;
+        running = true;
+        handler.post(poller);
+    }
+
+    public void stop() {
+        running = false;
+        room = null;
+        handler.removeCallbacks(poller);
+        tracks.clear();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final Runnable poller = new Runnable() {
+        @Override
+        public void run() {
+            if (!running) {
+                return;
+            }
+            final Room sampledRoom = room;
+            sampledRoom.getStats(new StatsListener() {
+                @Override
+                public void onStats(List<StatsReport> statsReports) {
+                    // Drop reports that arrive after stop() or a restart
+                    if (running && room == sampledRoom) {
+                        onReports(statsReports);
+                    }
+                }
+            });
+            handler.postDelayed(this, intervalMs);
+        }
+    };
+
+    private void onReports(List<StatsReport> statsReports) {
+        long nowMs = SystemClock.elapsedRealtime();
+        generation++;
+        sample.clear();
+        for (StatsReport report : statsReports) {
+            String prefix = report.getPeerConnectionId() + ":";
+            for (LocalAudioTrackStats s : report.getLocalAudioTrackStats()) {
+                TrackRates rates = update(prefix, s, KIND_AUDIO, DIRECTION_SEND, nowMs, s.bytesSent, s.packetsSent);
+                if (rates != null) {
+                    setRoundTripTime(rates, s.roundTripTime);
+                    setJitter(rates, s.jitter);
+                }
+            }
+            for (LocalVideoTrackStats s : report.getLocalVideoTrackStats()) {
+                TrackRates rates = update(prefix, s, KIND_VIDEO, DIRECTION_SEND, nowMs, s.bytesSent, s.packetsSent);
+                if (rates != null) {
+                    rates.frameRate = s.frameRate;
+                    setRoundTripTime(rates, s.roundTripTime);
+                }
+            }
+            for (RemoteAudioTrackStats s : report.getRemoteAudioTrackStats()) {
+                TrackRates rates = update(prefix, s, KIND_AUDIO, DIRECTION_RECEIVE, nowMs, s.bytesReceived, s.packetsReceived);
+                if (rates != null) {
+                    setJitter(rates, s.jitter);
+                }
+            }
+            for (RemoteVideoTrackStats s : report.getRemoteVideoTrackStats()) {
+                TrackRates rates = update(prefix, s, KIND_VIDEO, DIRECTION_RECEIVE, nowMs, s.bytesReceived, s.packetsReceived);
+                if (rates != null) {
+                    rates.frameRate = s.frameRate;
+                }
+            }
+        }
+
+        // Forget tracks that were not in this sample
+        Iterator<TrackRates> iterator = tracks.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().generation != generation) {
+                iterator.remove();
+            }
+        }
+        if (!sample.isEmpty()) {
+            listener.onSample(sample);
+        }
+    }
+
+    /*
+     * Advance the counters of the track, returns its rates when there was a previous sample.
+     */
+    private TrackRates update(String prefix, BaseTrackStats stats, String kind, String direction,
+                              long nowMs, long bytes, long packets) {
+        String key = prefix + stats.trackSid;
+        TrackRates rates = tracks.get(key);
+        if (rates == null) {
+            rates = new TrackRates();
+            rates.trackSid = stats.trackSid;
+            rates.kind = kind;
+            rates.direction = direction;
+            tracks.put(key, rates);
+        }
+        rates.generation = generation;
+
+        boolean hadPrevious = rates.hasPrevious;
+        long elapsedMs = nowMs - rates.previousTimeMs;
+        long bytesDelta = bytes - rates.previousBytes;
+        long packetsDelta = packets - rates.previousPackets;
+        long lostDelta = stats.packetsLost - rates.previousPacketsLost;
+
+        rates.hasPrevious = true;
+        rates.previousTimeMs = nowMs;
+        rates.previousBytes = bytes;
+        rates.previousPackets = packets;
+        rates.previousPacketsLost = stats.packetsLost;
+
+        // Counters restart when a track is republished, treat that as a new baseline
+        if (!hadPrevious || elapsedMs <= 0 || bytesDelta < 0 || packetsDelta < 0) {
+            return null;
+        }
+
+        rates.intervalMs = elapsedMs;
+        // bits per millisecond is kilobits per second
+        rates.bitrateKbps = bytesDelta * 8.0 / elapsedMs;
+        long expected = packetsDelta + Math.max(0, lostDelta);
+        rates.packetLossPercent = expected > 0 ? Math.max(0, lostDelta) * 100.0 / expected : 0;
+        sample.add(rates);
+        return rates;
+    }
+
+    private static void setRoundTripTime(TrackRates rates, long roundTripTimeMs) {
+        rates.roundTripTimeDeltaMs = rates.roundTripTimeMs == UNAVAILABLE ? 0 : roundTripTimeMs - rates.roundTripTimeMs;
+        rates.roundTripTimeMs = roundTripTimeMs;
+    }
+
+    private static void setJitter(TrackRates rates, int jitter) {
+        rates.jitterDelta = rates.jitter == UNAVAILABLE ? 0 : jitter - rates.jitter;
+        rates.jitter = jitter;
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Capturer that generates frames instead of reading a camera, for devices and emulators without
+ * one and for exercising the capture path, processors and governor under a known frame rate.
+ * <p>
+ * Frames are a moving bar on grey, written into pooled buffers on the capture thread.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.os.Handler;
+
+import com.twilio.video.VideoCapturer;
+import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
+
+import java.nio.ByteBuffer;
+
+import tvi.webrtc.CapturerObserver;
+import tvi.webrtc.JavaI420Buffer;
+import tvi.webrtc.SurfaceTextureHelper;
+import tvi.webrtc.VideoFrame;
+
+public class SyntheticVideoCapturer implements VideoCapturer {
+    private static final int BAR_WIDTH = 16;
+    private static final byte LUMA_BACKGROUND = (byte) 128;
+    private static final byte LUMA_BAR = (byte) 235;
+    private static final byte CHROMA_NEUTRAL = (byte) 128;
+
+    private final I420BufferPool pool = new I420BufferPool();
+    private CapturerObserver observer;
+    private Handler handler;
+    private volatile int width = 640;
+    private volatile int height = 480;
+    private volatile int framerate = 15;
+    private volatile boolean capturing = false;
+    // Capture thread only
+    private long frameCount = 0;
+
+    @Override
+    public void initialize(SurfaceTextureHelper surfaceTextureHelper, Context context, CapturerObserver observer) {
+        this.observer = observer;
+        this.handler = surfaceTextureHelper.getHandler();
+    }
+
+    @Override
+    public VideoFormat getCaptureFormat() {
+        return new VideoFormat(new VideoDimensions(width, height), framerate);
+    }
+
+    @Override
+    public void startCapture(int width, int height, int framerate) {
+        changeCaptureFormat(width, height, framerate);
+        capturing = true;
+        observer.onCapturerStarted(true);
+        handler.post(produceFrame);
+    }
+
+    @Override
+    public void stopCapture() {
+        if (!capturing) {
+            return;
+        }
+        capturing = false;
+        handler.removeCallbacks(produceFrame);
+        observer.onCapturerStopped();
+    }
+
+    @Override
+    public void changeCaptureFormat(int width, int height, int framerate) {
+        // Even dimensions so the chroma planes cover the frame exactly
+        this.width = Math.max(2, width & ~1);
+        this.height = Math.max(2, height & ~1);
+        this.framerate = Math.max(1, framerate);
+    }
+
+    @Override
+    public void dispose() {
+        stopCapture();
+    }
+
+    @Override
+    public boolean isScreencast() {
+        return false;
+    }
+
+    private final Runnable produceFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (!capturing) {
+                return;
+            }
+            long start = System.nanoTime();
+            int frameWidth = width;
+            int frameHeight = height;
+            JavaI420Buffer buffer = pool.acquire(frameWidth, frameHeight);
+            draw(buffer, frameWidth, frameHeight, (int) (frameCount++ * BAR_WIDTH / 2 % frameWidth));
+            VideoFrame frame = new VideoFrame(buffer, 0, start);
+            observer.onFrameCaptured(frame);
+            frame.release();
+
+            long elapsedMs = (System.nanoTime() - start) / 1000000;
+            handler.postDelayed(this, Math.max(0, 1000 / framerate - elapsedMs));
+        }
+    };
+
+    private static void draw(JavaI420Buffer buffer, int width, int height, int barX) {
+        ByteBuffer dataY = buffer.getDataY();
+        int strideY = buffer.getStrideY();
+        for (int row = 0; row < height; row++) {
+            int rowStart = row * strideY;
+            for (int col = 0; col < width; col++) {
+                boolean bar = col >= barX && col < barX + BAR_WIDTH;
+                dataY.put(rowStart + col, bar ? LUMA_BAR : LUMA_BACKGROUND);
+            }
+        }
+        fill(buffer.getDataU(), buffer.getStrideU(), (width + 1) / 2, (height + 1) / 2);
+        fill(buffer.getDataV(), buffer.getStrideV(), (width + 1) / 2, (height + 1) / 2);
+    }
+
+    private static void fill(ByteBuffer plane, int stride, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            int rowStart = row * stride;
+            for (int col = 0; col < width; col++) {
+                plane.put(rowStart + col, CHROMA_NEUTRAL);
+            }
+        }
+    }
+}
@@ -19,6 +19,20 @@ import java.util.Collections;
 import java.util.List;
 
 public class TwilioPackage implements ReactPackage {
+    private final boolean warmUpCodecCapabilities;
+
+    public TwilioPackage() {
+        this(true);
+    }
+
+    /*
+     * Set warmUpCodecCapabilities to false to skip probing the hardware codecs in the background
+     * when the package is created. The probe will then run on the first connect instead.
+     */
+    public TwilioPackage(boolean warmUpCodecCapabilities) {
+        this.warmUpCodecCapabilities = warmUpCodecCapabilities;
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
         return Collections.emptyList();
@@ -31,6 +45,9 @@ public class TwilioPackage implements ReactPackage {
 
     @Override
     public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
+        if (warmUpCodecCapabilities) {
+            CodecCapabilityCache.warmUp(reactContext);
+        }
         return Arrays.<ViewManager>asList(
                 new CustomTwilioVideoViewManager(),
                 new TwilioRemotePreviewManager(),
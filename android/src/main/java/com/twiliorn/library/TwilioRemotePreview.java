@@ -7,22 +7,111 @@
 
 package com.twiliorn.library;
 
+import android.graphics.Rect;
 import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
 
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.uimanager.ThemedReactContext;
 
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_FIRST_FRAME;
+
 
 public class TwilioRemotePreview extends RNVideoViewGroup {
 
     private static final String TAG = "TwilioRemotePreview";
 
+    private String trackSid;
+    private boolean attached = false;
+    private boolean visible = false;
+    // Whether the view was paused since its last first frame
+    private boolean resumed = false;
+    private final Rect visibleRect = new Rect();
+
+    // Scrolling a list moves views off-screen without detaching or hiding them
+    private final ViewTreeObserver.OnScrollChangedListener scrollChangedListener =
+            new ViewTreeObserver.OnScrollChangedListener() {
+                @Override
+                public void onScrollChanged() {
+                    if (isVisibleOnScreen() != visible) {
+                        reportRenderSize();
+                    }
+                }
+            };
 
     public TwilioRemotePreview(ThemedReactContext context, String trackSid) {
         super(context);
         Log.i("CustomTwilioVideoView", "Remote Prview Construct");
         Log.i("CustomTwilioVideoView", trackSid);
 
+        this.trackSid = trackSid;
+        getSurfaceViewRenderer().setViewListener(new PatchedVideoView.Listener() {
+            @Override
+            public void onFirstFrame() {
+                WritableMap event = new WritableNativeMap();
+                event.putString("trackSid", TwilioRemotePreview.this.trackSid);
+                event.putBoolean("resumed", resumed);
+                resumed = false;
+                pushEvent(TwilioRemotePreview.this, ON_FIRST_FRAME, event);
+            }
+        });
+        CustomTwilioVideoView.registerPrimaryVideoView(this.getSurfaceViewRenderer(), trackSid);
+    }
+
+    public void setTrackSid(String trackSid) {
+        this.trackSid = trackSid;
         CustomTwilioVideoView.registerPrimaryVideoView(this.getSurfaceViewRenderer(), trackSid);
+        reportRenderSize();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        reportRenderSize();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attached = true;
+        getViewTreeObserver().addOnScrollChangedListener(scrollChangedListener);
+        reportRenderSize();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attached = false;
+        getViewTreeObserver().removeOnScrollChangedListener(scrollChangedListener);
+        reportRenderSize();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        reportRenderSize();
+    }
+
+    private void reportRenderSize() {
+        boolean wasVisible = visible;
+        visible = isVisibleOnScreen();
+        if (wasVisible && !visible) {
+            resumed = true;
+        }
+        setRenderingPaused(!visible);
+        CustomTwilioVideoView.updateRemoteVideoViewSize(
+                getSurfaceViewRenderer(),
+                trackSid,
+                getWidth(),
+                getHeight(),
+                visible);
+    }
+
+    private boolean isVisibleOnScreen() {
+        // getGlobalVisibleRect is false when the view is clipped out entirely or has no size
+        return attached && isShown() && getGlobalVisibleRect(visibleRect);
     }
 
     public void applyZOrder(boolean applyZOrder) {
@@ -10,6 +10,7 @@ package com.twiliorn.library;
 import android.support.annotation.Nullable;
 import android.util.Log;
 
+import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
@@ -20,6 +21,10 @@ import tvi.webrtc.RendererCommon;
 import java.util.Map;
 
 import static com.twiliorn.library.RNVideoViewGroup.Events.ON_FRAME_DIMENSIONS_CHANGED;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_STATS;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_FREEZE;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_RENDER_FREEZE_ENDED;
+import static com.twiliorn.library.RNVideoViewGroup.Events.ON_FIRST_FRAME;
 
 public class TwilioRemotePreviewManager extends SimpleViewManager<TwilioRemotePreview> {
 
@@ -47,7 +52,7 @@ public class TwilioRemotePreviewManager extends SimpleViewManager<TwilioRemotePr
         Log.i("CustomTwilioVideoView", "Initialize Twilio REMOTE");
         Log.i("CustomTwilioVideoView", trackSid);
         myTrackSid = trackSid;
-        CustomTwilioVideoView.registerPrimaryVideoView(view.getSurfaceViewRenderer(), trackSid);
+        view.setTrackSid(trackSid);
     }
 
     @ReactProp(name = "applyZOrder", defaultBoolean = false)
@@ -55,6 +60,24 @@ public class TwilioRemotePreviewManager extends SimpleViewManager<TwilioRemotePr
       view.applyZOrder(applyZOrder);
     }
 
+    @ReactProp(name = "renderMonitor")
+    public void setRenderMonitor(TwilioRemotePreview view, @Nullable ReadableMap renderMonitor) {
+        if (renderMonitor == null || (renderMonitor.hasKey("enabled") && !renderMonitor.getBoolean("enabled"))) {
+            view.setRenderMonitor(0, 0);
+            return;
+        }
+        view.setRenderMonitor(
+                renderMonitor.hasKey("intervalMs") ? (long) renderMonitor.getDouble("intervalMs") : 1000,
+                renderMonitor.hasKey("freezeThresholdMs") ? (long) renderMonitor.getDouble("freezeThresholdMs") : 500);
+    }
+
+    @Override
+    public void onDropViewInstance(TwilioRemotePreview view) {
+        view.setRenderMonitor(0, 0);
+        super.onDropViewInstance(view);
+        CustomTwilioVideoView.unregisterPrimaryVideoView(view.getSurfaceViewRenderer());
+    }
+
     @Override
     protected TwilioRemotePreview createViewInstance(ThemedReactContext reactContext) {
         return new TwilioRemotePreview(reactContext, myTrackSid);
@@ -68,6 +91,26 @@ public class TwilioRemotePreviewManager extends SimpleViewManager<TwilioRemotePr
               MapBuilder.of(
                   "phasedRegistrationNames",
                   MapBuilder.of("bubbled", ON_FRAME_DIMENSIONS_CHANGED)))
+          .put(
+            ON_RENDER_STATS,
+              MapBuilder.of(
+                  "phasedRegistrationNames",
+                  MapBuilder.of("bubbled", ON_RENDER_STATS)))
+          .put(
+            ON_RENDER_FREEZE,
+              MapBuilder.of(
+                  "phasedRegistrationNames",
+                  MapBuilder.of("bubbled", ON_RENDER_FREEZE)))
+          .put(
+            ON_RENDER_FREEZE_ENDED,
+              MapBuilder.of(
+                  "phasedRegistrationNames",
+                  MapBuilder.of("bubbled", ON_RENDER_FREEZE_ENDED)))
+          .put(
+            ON_FIRST_FRAME,
+              MapBuilder.of(
+                  "phasedRegistrationNames",
+                  MapBuilder.of("bubbled", ON_FIRST_FRAME)))
                   .build();
   }
 }
@@ -0,0 +1,174 @@
+/**
+ * Blends a bitmap into every frame, upright in the orientation the frame is displayed in.
+ * <p>
+ * The bitmap is converted to YUV with its alpha once per frame rotation. Blending needs the
+ * pixels in memory: a frame that already is an I420 buffer belongs to the capturer and is copied
+ * into a pooled buffer, any other frame, such as the texture frames of the camera, costs the
+ * conversion to I420 it would otherwise get at the encoder, done here through the capturer's own
+ * YuvConverter, and is blended into that buffer without a second copy. WebRTC allocates the
+ * converted buffer natively, outside the Java heap.
+ */
+package com.twiliorn.library;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+
+import java.nio.ByteBuffer;
+
+import tvi.webrtc.JavaI420Buffer;
+import tvi.webrtc.VideoFrame;
+import tvi.webrtc.YuvHelper;
+
+public class WatermarkProcessor implements FrameProcessor {
+
+    // The bitmap as luma and chroma planes with alpha, in the orientation of the frame buffer
+    private static final class Mark {
+        final int width;
+        final int height;
+        final int chromaWidth;
+        final int chromaHeight;
+        final byte[] y;
+        final byte[] alpha;
+        final byte[] u;
+        final byte[] v;
+        final byte[] chromaAlpha;
+
+        Mark(Bitmap bitmap) {
+            width = bitmap.getWidth();
+            height = bitmap.getHeight();
+            chromaWidth = (width + 1) / 2;
+            chromaHeight = (height + 1) / 2;
+            y = new byte[width * height];
+            alpha = new byte[width * height];
+            u = new byte[chromaWidth * chromaHeight];
+            v = new byte[chromaWidth * chromaHeight];
+            chromaAlpha = new byte[chromaWidth * chromaHeight];
+
+            int[] argb = new int[width * height];
+            bitmap.getPixels(argb, 0, width, 0, 0, width, height);
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int pixel = argb[row * width + col];
+                    int a = pixel >>> 24;
+                    int r = (pixel >> 16) & 0xff;
+                    int g = (pixel >> 8) & 0xff;
+                    int b = pixel & 0xff;
+                    // BT.601 limited range, what the camera and the encoders use
+                    y[row * width + col] = (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+                    alpha[row * width + col] = (byte) a;
+                    if (row % 2 == 0 && col % 2 == 0) {
+                        int chroma = (row / 2) * chromaWidth + col / 2;
+                        u[chroma] = (byte) (((-38 * r - 74 * g + 112 * b + 128) >> 8) + 128);
+                        v[chroma] = (byte) (((112 * r - 94 * g - 18 * b + 128) >> 8) + 128);
+                        chromaAlpha[chroma] = (byte) a;
+                    }
+                }
+            }
+        }
+    }
+
+    private final String name;
+    private final Bitmap bitmap;
+    // Offset of the bitmap from the top left of the displayed frame
+    private final int x;
+    private final int y;
+    // Indexed by frame rotation / 90, built on the capture thread the first time it is needed
+    private final Mark[] marks = new Mark[4];
+
+    public WatermarkProcessor(String name, Bitmap bitmap, int x, int y) {
+        this.name = name;
+        this.bitmap = bitmap;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public VideoFrame process(VideoFrame frame, I420BufferPool pool) {
+        int rotation = frame.getRotation();
+        Mark mark = markFor(rotation);
+        VideoFrame.Buffer buffer = frame.getBuffer();
+        int width = buffer.getWidth();
+        int height = buffer.getHeight();
+        VideoFrame.I420Buffer dst;
+        if (buffer instanceof VideoFrame.I420Buffer) {
+            VideoFrame.I420Buffer src = (VideoFrame.I420Buffer) buffer;
+            JavaI420Buffer pooled = pool.acquire(width, height);
+            YuvHelper.copyPlane(src.getDataY(), src.getStrideY(), pooled.getDataY(), pooled.getStrideY(), width, height);
+            YuvHelper.copyPlane(src.getDataU(), src.getStrideU(), pooled.getDataU(), pooled.getStrideU(), (width + 1) / 2, (height + 1) / 2);
+            YuvHelper.copyPlane(src.getDataV(), src.getStrideV(), pooled.getDataV(), pooled.getStrideV(), (width + 1) / 2, (height + 1) / 2);
+            dst = pooled;
+        } else {
+            // A new buffer only this frame refers to, blended in place
+            dst = buffer.toI420();
+        }
+
+        // Where the displayed offset lands in the buffer, even so luma and chroma line up
+        int left;
+        int top;
+        switch (rotation) {
+            case 90:
+                left = y;
+                top = height - x - mark.height;
+                break;
+            case 180:
+                left = width - x - mark.width;
+                top = height - y - mark.height;
+                break;
+            case 270:
+                left = width - y - mark.width;
+                top = x;
+                break;
+            default:
+                left = x;
+                top = y;
+                break;
+        }
+        left &= ~1;
+        top &= ~1;
+
+        blend(dst.getDataY(), dst.getStrideY(), width, height, left, top,
+                mark.y, mark.alpha, mark.width, mark.height);
+        blend(dst.getDataU(), dst.getStrideU(), (width + 1) / 2, (height + 1) / 2, left / 2, top / 2,
+                mark.u, mark.chromaAlpha, mark.chromaWidth, mark.chromaHeight);
+        blend(dst.getDataV(), dst.getStrideV(), (width + 1) / 2, (height + 1) / 2, left / 2, top / 2,
+                mark.v, mark.chromaAlpha, mark.chromaWidth, mark.chromaHeight);
+        return new VideoFrame(dst, rotation, frame.getTimestampNs());
+    }
+
+    private Mark markFor(int rotation) {
+        int index = (rotation / 90) % 4;
+        if (marks[index] == null) {
+            Bitmap rotated = bitmap;
+            if (rotation != 0) {
+                // Turned back by the rotation the frame is displayed with
+                Matrix matrix = new Matrix();
+                matrix.postRotate(360 - rotation);
+                rotated = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, false);
+            }
+            marks[index] = new Mark(rotated);
+        }
+        return marks[index];
+    }
+
+    private static void blend(ByteBuffer plane, int stride, int planeWidth, int planeHeight, int left, int top,
+                              byte[] mark, byte[] alpha, int markWidth, int markHeight) {
+        for (int row = Math.max(0, -top); row < markHeight && top + row < planeHeight; row++) {
+            int planeRow = (top + row) * stride;
+            for (int col = Math.max(0, -left); col < markWidth && left + col < planeWidth; col++) {
+                int a = alpha[row * markWidth + col] & 0xff;
+                if (a == 0) {
+                    continue;
+                }
+                int index = planeRow + left + col;
+                int value = plane.get(index) & 0xff;
+                int markValue = mark[row * markWidth + col] & 0xff;
+                plane.put(index, (byte) ((markValue * a + value * (255 - a)) / 255));
+            }
+        }
+    }
+}
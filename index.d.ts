@@ -8,12 +8,267 @@ declare module "react-native-twilio-video-webrtc" {
   }
 
   type scaleType = "fit" | "fill";
-  type cameraType = "front" | "back";
+  // "synthetic" (Android only) generates frames instead of opening a camera
+  type cameraType = "front" | "back" | "synthetic";
+  type trackPriority = "low" | "standard" | "high";
+
+  type VideoDimensions = {
+    width: number;
+    height: number;
+  };
+
+  type DataTrackOptions = {
+    name?: string;
+    // defaults to true
+    ordered?: boolean;
+    // ms, set this or maxRetransmits for a lossy channel
+    maxPacketLifeTime?: number;
+    maxRetransmits?: number;
+    // Android only: send every binary message as a frame of this library, needed by aggregation and
+    // sendLargeMessage. Receivers recognise the track by a reserved "framed:" name prefix, which
+    // is left out of the channel name. Binary messages on other tracks are never unpacked.
+    framed?: boolean;
+    // Android only: pack small messages into one data-track message, unpacked by this library on
+    // receipt, implies framed
+    aggregation?: {
+      // defaults to and is capped at 16384, the data-track message size
+      maxFrameBytes?: number;
+      // defaults to 16
+      flushIntervalMs?: number;
+    };
+    // Android only: token bucket applied to outgoing messages, an aggregated frame costs one token
+    // per message it carries
+    rateLimit?: {
+      messagesPerSecond?: number;
+      // defaults to 1
+      burst?: number;
+      // queue length kept for lossy tracks, defaults to 64
+      maxQueued?: number;
+    };
+    // drop the oldest queued message when the rate limit queue is full,
+    // defaults to true for tracks with maxPacketLifeTime, maxRetransmits or ordered false
+    lossy?: boolean;
+  };
+
+  export type DataTrackSenderStatsEventArgs = {
+    [channel: string]: {
+      messagesSent: number;
+      messagesAggregated: number;
+      messagesDropped: number;
+      framesSent: number;
+      queueDepth: number;
+    };
+  };
+
+  export type DataTrackSenderStatsCb = (d: DataTrackSenderStatsEventArgs) => void;
+
+  export type DataTrackTransferEventArgs = {
+    direction: "send" | "receive";
+    messageId: number;
+    channel?: string;
+    // receive only
+    trackSid?: string;
+    participant?: Participant;
+  };
+
+  export type DataTrackTransferProgressEventArgs = DataTrackTransferEventArgs & {
+    bytesTransferred: number;
+    totalBytes: number;
+  };
+
+  export type DataTrackTransferFailedEventArgs = DataTrackTransferEventArgs & {
+    // send only: notFramed and unreliable, sendLargeMessage needs a framed, reliable track. corrupt
+    // on send is a binary payload that is not valid base64
+    reason: "tooLarge" | "evicted" | "timeout" | "corrupt" | "notFramed" | "unreliable";
+  };
+
+  export type DataTrackMessageBatchEventArgs = {
+    tracks: {
+      trackSid: string;
+      channel: string;
+      participant?: Participant;
+      // message for text, payload (base64) for binary
+      messages: { message?: string; payload?: string }[];
+      queueDepth: number;
+      received: number;
+      dropped: number;
+      coalesced: number;
+    }[];
+  };
+
+  export type DataTrackMessageBatchCb = (d: DataTrackMessageBatchEventArgs) => void;
+
+  export type MediaTimingsEventArgs = {
+    trackSid: string;
+    kind: "audio" | "video";
+    // monotonic clock in ms, the other timings are ms since connect started
+    connectStart: number;
+    connected?: number;
+    subscribed?: number;
+    sinkAttached?: number;
+    // video only
+    firstFrame?: number;
+  };
+
+  export type MediaTimingsCb = (d: MediaTimingsEventArgs) => void;
+
+  export type LocalVideoLifecycleEventArgs = {
+    state: "suspended" | "released" | "resumed";
+    // suspended only
+    gracePeriodMs?: number;
+    // released and resumed, time spent in the background
+    backgroundMs?: number;
+    // resumed only: "capture" restarted the camera into the suspended track, "track" created a new one
+    restarted?: "capture" | "track";
+    // resumed only, from onHostResume to the first captured frame
+    resumeMs?: number;
+  };
+
+  export type LocalVideoLifecycleCb = (d: LocalVideoLifecycleEventArgs) => void;
+
+  export type VideoProcessorStatsEventArgs = {
+    // names of the active processors in the order they run
+    order: string[];
+    stages: {
+      name: string;
+      active: boolean;
+      // frames processed since the previous getVideoProcessorStats
+      frames: number;
+      averageMs: number;
+      maxMs: number;
+      lastMs: number;
+    }[];
+  };
+
+  export type VideoProcessorStatsCb = (d: VideoProcessorStatsEventArgs) => void;
+
+  export type FrameGovernorMetricsEventArgs = {
+    decision: "hold" | "decrease" | "increase";
+    // frame rate admitted from now on
+    targetFps: number;
+    // over the last interval
+    admittedFps: number;
+    captureFps: number;
+    framesCaptured: number;
+    framesDropped: number;
+    // average per admitted frame through the processors
+    processingMs: number;
+    // average from capture to the capture thread
+    queueDelayMs: number;
+    // send frame rate of the last stats sample, only while setStatsSampling is on
+    encoderFps?: number;
+    estimatedLatencyMs: number;
+  };
+
+  export type FrameGovernorMetricsCb = (d: FrameGovernorMetricsEventArgs) => void;
+
+  export type StatsField =
+    | "base"
+    | "transport"
+    | "roundTripTime"
+    | "audio"
+    | "dimensions"
+    | "capture"
+    | "candidatePairs"
+    | "candidates"
+    | "all";
+
+  export type StatsSampleEventArgs = {
+    tracks: {
+      trackSid: string;
+      kind: "audio" | "video";
+      direction: "send" | "receive";
+      // time since the previous sample
+      intervalMs: number;
+      // kbps
+      bitrate: number;
+      // percent of packets lost in the interval
+      packetLoss: number;
+      frameRate?: number;
+      // ms, send only
+      roundTripTime?: number;
+      roundTripTimeDelta?: number;
+      // audio only
+      jitter?: number;
+      jitterDelta?: number;
+    }[];
+  };
+
+  export type StatsSampleCb = (d: StatsSampleEventArgs) => void;
+
+  export type StatsMetricSummary = {
+    count: number;
+    min: number;
+    max: number;
+    mean: number;
+    p50: number;
+    p95: number;
+  };
+
+  export type StatsSummaryEventArgs = {
+    tracks: {
+      trackSid: string;
+      kind: "audio" | "video";
+      direction: "send" | "receive";
+      metrics: {
+        roundTripTime?: StatsMetricSummary;
+        jitter?: StatsMetricSummary;
+        packetLoss?: StatsMetricSummary;
+        frameRate?: StatsMetricSummary;
+        bitrate?: StatsMetricSummary;
+      };
+    }[];
+  };
+
+  export type StatsSummaryCb = (d: StatsSummaryEventArgs) => void;
+
+  export type DataTrackTransferProgressCb = (d: DataTrackTransferProgressEventArgs) => void;
+
+  export type DataTrackTransferFailedCb = (d: DataTrackTransferFailedEventArgs) => void;
+
+  type BandwidthProfile = {
+    video?: {
+      mode?: "grid" | "collaboration" | "presentation";
+      // kbps
+      maxSubscriptionBitrate?: number;
+      renderDimensions?: { [P in trackPriority]?: VideoDimensions };
+      dominantSpeakerPriority?: trackPriority;
+      trackSwitchOffMode?: "disabled" | "predicted" | "detected";
+      // Android only: derive each remote track's priority from the size it is rendered at,
+      // using renderDimensions as the thresholds
+      renderSizeHints?: boolean;
+    };
+  };
+
+  export type RenderStatsEventArgs = {
+    intervalMs: number;
+    frameRate: number;
+    framesReceived: number;
+    longestGapMs: number;
+    // counts of inter-frame gaps up to each gapBucketsMs bound, the last entry is longer gaps
+    gapHistogram: number[];
+    gapBucketsMs: number[];
+    longestFreezeMs: number;
+    freezeCount: number;
+  };
 
   interface TwilioVideoParticipantViewProps extends ViewProps {
     trackIdentifier: TrackIdentifier;
     ref?: React.Ref<any>;
     scaleType?: scaleType;
+    // Android only
+    renderMonitor?: {
+      enabled?: boolean;
+      // defaults to 1000
+      intervalMs?: number;
+      // defaults to 500
+      freezeThresholdMs?: number;
+    };
+    onRenderStats?: (d: RenderStatsEventArgs) => void;
+    onRenderFreeze?: (d: { frozenMs: number }) => void;
+    onRenderFreezeEnded?: (d: { freezeMs: number }) => void;
+    // resumed is true when the view came back on screen, off-screen views render no frames
+    onFirstFrame?: (d: { trackSid: string; resumed: boolean }) => void;
   }
 
   interface TwilioVideoLocalViewProps extends ViewProps {
@@ -43,10 +298,23 @@ declare module "react-native-twilio-video-webrtc" {
   export interface DataTrackEventCbArgs {
     message: string;
     trackSid: string;
+    // Android only: name of the data track and the participant that sent the message
+    channel?: string;
+    participant?: Participant;
   }
 
   export type DataTrackEventCb = (t: DataTrackEventCbArgs) => void;
 
+  export interface DataTrackBinaryEventCbArgs {
+    // base64 encoded bytes
+    payload: string;
+    trackSid: string;
+    channel: string;
+    participant?: Participant;
+  }
+
+  export type DataTrackBinaryEventCb = (t: DataTrackBinaryEventCbArgs) => void;
+
   interface RoomEventCommonArgs {
     roomName: string;
     roomSid: string;
@@ -90,6 +358,26 @@ declare module "react-native-twilio-video-webrtc" {
 
   export type LocalParticipantSupportedCodecsCb = (d: LocalParticipantSupportedCodecsCbEventArgs) => void;
 
+  export type CodecProbeCompletedEventArgs = {
+    cacheHit: boolean;
+    source: "memory" | "preferences" | "probe";
+    durationMs: number;
+  }
+
+  export type CodecProbeCompletedCb = (d: CodecProbeCompletedEventArgs) => void;
+
+  export type CaptureFormatChangedEventArgs = {
+    width: number;
+    height: number;
+    frameRate: number;
+    reason: "cpu" | "thermal" | "network" | "headroom";
+    // cores' worth of CPU time used by the app, 1 is one core fully busy
+    cpuLoad: number;
+    temperature: number;
+  }
+
+  export type CaptureFormatChangedCb = (d: CaptureFormatChangedEventArgs) => void;
+
   export type TwilioVideoProps = ViewProps & {
     onCameraDidStart?: () => void;
     onCameraDidStopRunning?: (err: any) => void;
@@ -112,9 +400,24 @@ declare module "react-native-twilio-video-webrtc" {
     onRoomParticipantDidDisconnect?: ParticipantEventCb;
     onNetworkQualityLevelsChanged?: NetworkLevelChangeEventCb;
     onLocalParticipantSupportedCodecs?: LocalParticipantSupportedCodecsCb;
+    // Android only
+    onCodecProbeCompleted?: CodecProbeCompletedCb;
+    onCaptureFormatChanged?: CaptureFormatChangedCb;
 
     onStatsReceived?: (data: any) => void;
     onDataTrackMessageReceived?: DataTrackEventCb;
+    // Android only
+    onDataTrackBinaryMessageReceived?: DataTrackBinaryEventCb;
+    onDataTrackSenderStats?: DataTrackSenderStatsCb;
+    onDataTrackTransferProgress?: DataTrackTransferProgressCb;
+    onDataTrackTransferFailed?: DataTrackTransferFailedCb;
+    onDataTrackMessageBatch?: DataTrackMessageBatchCb;
+    onStatsSample?: StatsSampleCb;
+    onStatsSummary?: StatsSummaryCb;
+    onMediaTimings?: MediaTimingsCb;
+    onLocalVideoLifecycle?: LocalVideoLifecycleCb;
+    onVideoProcessorStats?: VideoProcessorStatsCb;
+    onFrameGovernorMetrics?: FrameGovernorMetricsCb;
     // iOS only
     autoInitializeCamera?: boolean;    
     ref?: React.Ref<any>;
@@ -146,9 +449,22 @@ declare module "react-native-twilio-video-webrtc" {
     enableRemoteAudio?: boolean;
     encodingParameters?: {
       enableH264Codec?: boolean;
+      captureWidth?: number;
+      captureHeight?: number;
+      captureFrameRate?: number;
+      // steps the capture format between QVGA and 720p, never above the capture size given
+      adaptiveCaptureFormat?: boolean;
+      // max send bitrates in kbps, 0 for no limit
+      audioBitrate?: number;
+      videoBitrate?: number;
     };
     enableNetworkQualityReporting?: boolean;
     maintainVideoTrackInBackground?: boolean;
+    bandwidthProfile?: BandwidthProfile;
+    dataTrack?: DataTrackOptions;
+    // named data tracks, takes precedence over dataTrack. A repeated name is dropped, the first
+    // track with it is kept
+    dataTracks?: DataTrackOptions[];
   };
 
   class TwilioVideo extends React.Component<TwilioVideoProps> {
@@ -160,12 +476,84 @@ declare module "react-native-twilio-video-webrtc" {
     disconnect: () => void;
     flipCamera: () => void;
     toggleSoundSetup: (speaker: boolean) => void;
-    getStats: () => void;
+    // fields is Android only, defaults to base, transport, roundTripTime, audio and dimensions
+    getStats: (fields?: StatsField[]) => void;
     publishLocalAudio: () => void;
     unpublishLocalAudio: () => void;
     publishLocalVideo: () => void;
     unpublishLocalVideo: () => void;
-    sendString: (message: string) => void;
+    // channel is Android only, the first data track is used when omitted
+    sendString: (message: string, channel?: string) => void;
+    // Android only, payload is base64 encoded
+    sendBinary: (payload: string, channel?: string) => void;
+    // Android only
+    setEncodingParameters: (encodingParameters: { audioBitrate?: number; videoBitrate?: number }) => void;
+    setRemoteTrackPriority: (trackSid: string, priority?: trackPriority | null) => void;
+    setLocalTrackPriority: (trackSid: string, priority: trackPriority) => void;
+    setEventBatching: (options?: {
+      enabled?: boolean;
+      flushIntervalMs?: number;
+      // event name to the dotted path of the field it is coalesced by, "" for the event name only
+      coalesce?: { [eventName: string]: string };
+    }) => void;
+    setStatsSampling: (options?: {
+      enabled?: boolean;
+      intervalMs?: number;
+      // defaults to true, set false to only keep the history
+      emitSamples?: boolean;
+      // samples kept per track and metric for getStatsSummary, 0 (default) keeps none
+      historySize?: number;
+    }) => void;
+    getStatsSummary: () => void;
+    // Android only: open the camera and microphone before connect, which then reuses the tracks
+    startLocalPreview: (options?: {
+      cameraType?: cameraType;
+      enableAudio?: boolean;
+      enableVideo?: boolean;
+      // capture fields of androidConnectParams.encodingParameters, keep them equal to skip a format change on connect
+      encodingParameters?: { captureWidth?: number; captureHeight?: number; captureFrameRate?: number };
+    }) => void;
+    stopLocalPreview: () => void;
+    // Android only: processors are registered from Java, see CustomTwilioVideoView.getLocalVideoProcessing
+    setVideoProcessorOrder: (names: string[]) => void;
+    getVideoProcessorStats: () => void;
+    // Android only: drop captured frames to hold a latency target
+    setFrameGovernor: (options?: {
+      // defaults to true
+      enabled?: boolean;
+      // defaults to 100
+      targetLatencyMs?: number;
+      // defaults to 5
+      minFps?: number;
+      // defaults to the capture frame rate
+      maxFps?: number;
+      // defaults to 1000
+      intervalMs?: number;
+      // also lower the camera frame rate, defaults to false
+      adjustCaptureFps?: boolean;
+    }) => void;
+    setBackgroundVideo: (options?: {
+      // defaults to true
+      suspend?: boolean;
+      // time suspended before the track is released, defaults to 30000, 0 keeps it
+      gracePeriodMs?: number;
+    }) => void;
+    getDataTrackSenderStats: () => void;
+    // payload is base64 encoded when binary is set, the channel must be framed and reliable
+    sendLargeMessage: (payload: string, options?: { channel?: string; binary?: boolean; compress?: boolean }) => void;
+    setDataTrackInbound: (options?: {
+      enabled?: boolean;
+      // per track, defaults to 256
+      maxQueued?: number;
+      // defaults to dropOldest
+      overflow?: "dropOldest" | "dropNewest" | "coalesce";
+      // dotted path of the JSON field text messages are coalesced by
+      coalesceKey?: string;
+      // defaults to 16
+      flushIntervalMs?: number;
+      // per track and flush, defaults to 64
+      maxBatchSize?: number;
+    }) => void;
   }
 
   class TwilioVideoLocalView extends React.Component<
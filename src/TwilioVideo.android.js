@@ -67,7 +67,7 @@ const propTypes = {
   /**
      * Called when an dataTrack receives a message
      *
-     * @param {{message}}
+     * @param {{message, trackSid, channel, participant}}
      */
   onDataTrackMessageReceived: PropTypes.func,
 
@@ -148,7 +148,85 @@ const propTypes = {
   /**
      * Callback that is called after determining what codecs are supported
      */
-  onLocalParticipantSupportedCodecs: PropTypes.func
+  onLocalParticipantSupportedCodecs: PropTypes.func,
+  /**
+     * Callback that is called after the hardware codec capabilities are resolved while connecting
+     *
+     * @param {{cacheHit, source, durationMs}}
+     */
+  onCodecProbeCompleted: PropTypes.func,
+  /**
+     * Callback that is called when the adaptive capture format steps to a new resolution/frame rate
+     *
+     * @param {{width, height, frameRate, reason, cpuLoad, temperature}}
+     */
+  onCaptureFormatChanged: PropTypes.func,
+  /**
+     * Called when a dataTrack receives a binary message
+     *
+     * @param {{payload, trackSid, channel, participant}} payload is base64 encoded
+     */
+  onDataTrackBinaryMessageReceived: PropTypes.func,
+  /**
+     * Callback with the send counters of each aggregated or rate limited data track, keyed by track name
+     *
+     * @param {{channel: {messagesSent, messagesAggregated, messagesDropped, framesSent, queueDepth}}}
+     */
+  onDataTrackSenderStats: PropTypes.func,
+  /**
+     * Callback as chunks of a large data track message are sent or received
+     *
+     * @param {{direction, messageId, channel, trackSid, participant, bytesTransferred, totalBytes}}
+     */
+  onDataTrackTransferProgress: PropTypes.func,
+  /**
+     * Callback when a large data track message could not be reassembled
+     *
+     * @param {{direction, messageId, channel, trackSid, participant, reason}}
+     */
+  onDataTrackTransferFailed: PropTypes.func,
+  /**
+     * Callback with the queued data track messages of each track when setDataTrackInbound is enabled
+     *
+     * @param {{tracks: [{trackSid, channel, participant, messages, queueDepth, received, dropped, coalesced}]}}
+     */
+  onDataTrackMessageBatch: PropTypes.func,
+  /**
+     * Callback with the bitrate, packet loss, frame rate, RTT and jitter of each track since the previous sample when setStatsSampling is enabled
+     *
+     * @param {{tracks: [{trackSid, kind, direction, intervalMs, bitrate, packetLoss, frameRate, roundTripTime, roundTripTimeDelta, jitter, jitterDelta}]}}
+     */
+  onStatsSample: PropTypes.func,
+  /**
+     * Callback with min, max, mean, p50 and p95 of each sampled metric per track, on getStatsSummary and when the room disconnects
+     *
+     * @param {{tracks: [{trackSid, kind, direction, metrics}]}}
+     */
+  onStatsSummary: PropTypes.func,
+  /**
+     * Callback with the join timeline of a remote track, in ms since connect started: video tracks on their first rendered frame, audio tracks on subscription
+     *
+     * @param {{trackSid, kind, connectStart, connected, subscribed, sinkAttached, firstFrame}}
+     */
+  onMediaTimings: PropTypes.func,
+  /**
+     * Callback when the local video track is suspended, released or resumed around the app going to the background, resumed carries the ms from onHostResume to the first captured frame
+     *
+     * @param {{state, gracePeriodMs, backgroundMs, restarted, resumeMs}}
+     */
+  onLocalVideoLifecycle: PropTypes.func,
+  /**
+     * Callback on getVideoProcessorStats with the per-frame processing time of each registered local video processor
+     *
+     * @param {{order, stages: [{name, active, frames, averageMs, maxMs, lastMs}]}}
+     */
+  onVideoProcessorStats: PropTypes.func,
+  /**
+     * Callback every intervalMs while setFrameGovernor is on, with the admitted frame rate and the latency signals it was decided from
+     *
+     * @param {{decision, targetFps, admittedFps, captureFps, framesCaptured, framesDropped, processingMs, queueDelayMs, encoderFps, estimatedLatencyMs}}
+     */
+  onFrameGovernorMetrics: PropTypes.func
 }
 
 const nativeEvents = {
@@ -165,7 +243,23 @@ const nativeEvents = {
   toggleBluetoothHeadset: 11,
   sendString: 12,
   publishVideo: 13,
-  publishAudio: 14
+  publishAudio: 14,
+  setEncodingParameters: 15,
+  setRemoteTrackPriority: 16,
+  setLocalTrackPriority: 17,
+  setEventBatching: 18,
+  sendBinary: 19,
+  getDataTrackSenderStats: 20,
+  sendLargeMessage: 21,
+  setDataTrackInbound: 22,
+  setStatsSampling: 23,
+  getStatsSummary: 24,
+  setBackgroundVideo: 25,
+  startLocalPreview: 26,
+  stopLocalPreview: 27,
+  setVideoProcessorOrder: 28,
+  getVideoProcessorStats: 29,
+  setFrameGovernor: 30
 }
 
 class CustomTwilioVideoView extends Component {
@@ -179,7 +273,10 @@ class CustomTwilioVideoView extends Component {
     enableNetworkQualityReporting = false,
     dominantSpeakerEnabled = false,
     maintainVideoTrackInBackground = false,
-    encodingParameters = {}
+    encodingParameters = {},
+    bandwidthProfile = {},
+    dataTrack = {},
+    dataTracks = []
   }) {
     this.runCommand(nativeEvents.connectToRoom, [
       roomName,
@@ -191,14 +288,211 @@ class CustomTwilioVideoView extends Component {
       dominantSpeakerEnabled,
       maintainVideoTrackInBackground,
       cameraType,
-      encodingParameters
+      encodingParameters,
+      bandwidthProfile,
+      dataTrack,
+      dataTracks
     ])
   }
 
-  sendString (message) {
-    this.runCommand(nativeEvents.sendString, [
-      message
-    ])
+  /**
+   * Open the camera and microphone before connecting, e.g. on a lobby screen. The preview shows
+   * in TwilioVideoLocalView and connect reuses the tracks, so joining only costs signaling.
+   * Pass the same cameraType and encodingParameters as to connect to keep the capture format.
+   */
+  startLocalPreview ({
+    cameraType = 'front',
+    enableAudio = true,
+    enableVideo = true,
+    encodingParameters = {}
+  } = {}) {
+    this.runCommand(nativeEvents.startLocalPreview, [{ cameraType, enableAudio, enableVideo, encodingParameters }])
+  }
+
+  /**
+   * Release the tracks of startLocalPreview when leaving without connecting
+   */
+  stopLocalPreview () {
+    this.runCommand(nativeEvents.stopLocalPreview, [])
+  }
+
+  /**
+   * Run the named local video processors in this order, registered processors left out are
+   * skipped. Processors are registered from Java on CustomTwilioVideoView.getLocalVideoProcessing()
+   *
+   * @param {string[]} names
+   */
+  setVideoProcessorOrder (names) {
+    this.runCommand(nativeEvents.setVideoProcessorOrder, [names])
+  }
+
+  /**
+   * Request the processing time of each local video processor since the previous request,
+   * delivered through onVideoProcessorStats
+   */
+  getVideoProcessorStats () {
+    this.runCommand(nativeEvents.getVideoProcessorStats, [])
+  }
+
+  /**
+   * Drop captured frames to keep the latency they build up before encoding under targetLatencyMs,
+   * reported through onFrameGovernorMetrics. maxFps defaults to the capture frame rate,
+   * adjustCaptureFps also lowers the camera frame rate in steps.
+   *
+   * @param {{enabled, targetLatencyMs, minFps, maxFps, intervalMs, adjustCaptureFps}} options
+   */
+  setFrameGovernor ({
+    enabled = true,
+    targetLatencyMs = 100,
+    minFps = 5,
+    maxFps = 0,
+    intervalMs = 1000,
+    adjustCaptureFps = false
+  } = {}) {
+    this.runCommand(nativeEvents.setFrameGovernor, [{ enabled, targetLatencyMs, minFps, maxFps, intervalMs, adjustCaptureFps }])
+  }
+
+  /**
+   * @param {string} message
+   * @param {string} channel name of the data track, the first one when omitted
+   */
+  sendString (message, channel) {
+    this.runCommand(nativeEvents.sendString, channel ? [message, channel] : [message])
+  }
+
+  /**
+   * Change the maximum send bitrates while connected
+   *
+   * @param {{audioBitrate, videoBitrate}} encodingParameters in kbps, 0 for no limit
+   */
+  setEncodingParameters (encodingParameters) {
+    this.runCommand(nativeEvents.setEncodingParameters, [encodingParameters])
+  }
+
+  /**
+   * Set the subscriber priority of a remote video track
+   *
+   * @param {string} trackSid
+   * @param {'low'|'standard'|'high'|null} priority null restores the publisher priority
+   */
+  setRemoteTrackPriority (trackSid, priority = null) {
+    this.runCommand(nativeEvents.setRemoteTrackPriority, [trackSid, priority])
+  }
+
+  /**
+   * Set the publish priority of a local track
+   *
+   * @param {string} trackSid
+   * @param {'low'|'standard'|'high'} priority
+   */
+  setLocalTrackPriority (trackSid, priority) {
+    this.runCommand(nativeEvents.setLocalTrackPriority, [trackSid, priority])
+  }
+
+  /**
+   * Deliver native events in batches instead of one bridge call each
+   *
+   * @param {{enabled, flushIntervalMs, coalesce}} options coalesce maps an event name to the
+   * dotted path of the field it is coalesced by ('' for the event name only)
+   */
+  setEventBatching ({ enabled = true, flushIntervalMs, coalesce } = {}) {
+    const options = { enabled }
+    if (flushIntervalMs !== undefined) {
+      options.flushIntervalMs = flushIntervalMs
+    }
+    if (coalesce !== undefined) {
+      options.coalesce = coalesce
+    }
+    this.runCommand(nativeEvents.setEventBatching, [options])
+  }
+
+  /**
+   * Send a binary message on the local data track
+   *
+   * @param {string} payload base64 encoded bytes
+   * @param {string} channel name of the data track, the first one when omitted
+   */
+  sendBinary (payload, channel) {
+    this.runCommand(nativeEvents.sendBinary, channel ? [payload, channel] : [payload])
+  }
+
+  /**
+   * Request the send counters of data tracks configured with aggregation or rateLimit,
+   * delivered through onDataTrackSenderStats
+   */
+  getDataTrackSenderStats () {
+    this.runCommand(nativeEvents.getDataTrackSenderStats, [])
+  }
+
+  /**
+   * Send a payload larger than a single data track message in chunks, reassembled by the
+   * receiver and delivered through onDataTrackMessageReceived or onDataTrackBinaryMessageReceived.
+   * The channel must be a framed, reliable data track, otherwise onDataTrackTransferFailed fires
+   *
+   * @param {string} payload text, or base64 encoded bytes when binary is set
+   * @param {{channel: string, binary: boolean, compress: boolean}} options
+   */
+  sendLargeMessage (payload, { channel, binary = false, compress = false } = {}) {
+    const options = { binary, compress }
+    if (channel) {
+      options.channel = channel
+    }
+    this.runCommand(nativeEvents.sendLargeMessage, [payload, options])
+  }
+
+  /**
+   * Queue remote data track messages per track and deliver them in batches through
+   * onDataTrackMessageBatch instead of one event per message
+   *
+   * @param {{enabled: boolean, maxQueued: number, overflow: string, coalesceKey: string, flushIntervalMs: number, maxBatchSize: number}} options
+   */
+  setDataTrackInbound ({ enabled = true, maxQueued, overflow, coalesceKey, flushIntervalMs, maxBatchSize } = {}) {
+    const options = { enabled }
+    if (maxQueued !== undefined) {
+      options.maxQueued = maxQueued
+    }
+    if (overflow !== undefined) {
+      options.overflow = overflow
+    }
+    if (coalesceKey !== undefined) {
+      options.coalesceKey = coalesceKey
+    }
+    if (flushIntervalMs !== undefined) {
+      options.flushIntervalMs = flushIntervalMs
+    }
+    if (maxBatchSize !== undefined) {
+      options.maxBatchSize = maxBatchSize
+    }
+    this.runCommand(nativeEvents.setDataTrackInbound, [options])
+  }
+
+  /**
+   * Sample stats natively while connected and deliver the rates between samples
+   * through onStatsSample. A positive historySize keeps that many samples per track for
+   * getStatsSummary and the summary sent when the room disconnects
+   *
+   * @param {{enabled: boolean, intervalMs: number, emitSamples: boolean, historySize: number}} options
+   */
+  setStatsSampling ({ enabled = true, intervalMs = 1000, emitSamples = true, historySize = 0 } = {}) {
+    this.runCommand(nativeEvents.setStatsSampling, [{ enabled, intervalMs, emitSamples, historySize }])
+  }
+
+  /**
+   * Request the p50/p95 summary of the sampled stats history, delivered through onStatsSummary
+   */
+  getStatsSummary () {
+    this.runCommand(nativeEvents.getStatsSummary, [])
+  }
+
+  /**
+   * Suspend the local video track in the background instead of releasing it: the track stays
+   * published but disabled and the camera is stopped, so resuming restarts capture without
+   * republishing. The track is released after gracePeriodMs in the background, 0 never.
+   *
+   * @param {{suspend: boolean, gracePeriodMs: number}} options
+   */
+  setBackgroundVideo ({ suspend = true, gracePeriodMs = 30000 } = {}) {
+    this.runCommand(nativeEvents.setBackgroundVideo, [{ suspend, gracePeriodMs }])
   }
 
   publishLocalAudio () {
@@ -249,8 +543,14 @@ class CustomTwilioVideoView extends Component {
     return Promise.resolve(enabled)
   }
 
-  getStats () {
-    this.runCommand(nativeEvents.getStats, [])
+  /**
+   * Request stats, delivered through onStatsReceived
+   *
+   * @param {string[]} fields field groups to include (base, transport, roundTripTime, audio,
+   * dimensions, capture, candidatePairs, candidates or all), the first five when omitted
+   */
+  getStats (fields) {
+    this.runCommand(nativeEvents.getStats, fields ? [fields] : [])
   }
 
   disableOpenSLES () {
@@ -299,7 +599,20 @@ class CustomTwilioVideoView extends Component {
       'onStatsReceived',
       'onNetworkQualityLevelsChanged',
       'onDominantSpeakerDidChange',
-      'onLocalParticipantSupportedCodecs'
+      'onLocalParticipantSupportedCodecs',
+      'onCodecProbeCompleted',
+      'onCaptureFormatChanged',
+      'onDataTrackBinaryMessageReceived',
+      'onDataTrackSenderStats',
+      'onDataTrackTransferProgress',
+      'onDataTrackTransferFailed',
+      'onDataTrackMessageBatch',
+      'onStatsSample',
+      'onStatsSummary',
+      'onMediaTimings',
+      'onLocalVideoLifecycle',
+      'onVideoProcessorStats',
+      'onFrameGovernorMetrics'
     ].reduce((wrappedEvents, eventName) => {
       if (this.props[eventName]) {
         return {
@@ -308,7 +621,17 @@ class CustomTwilioVideoView extends Component {
         }
       }
       return wrappedEvents
-    }, {})
+    }, {
+      onEventBatch: data => this.dispatchEventBatch(data.nativeEvent)
+    })
+  }
+
+  dispatchEventBatch ({ events }) {
+    events.forEach(({ name, data }) => {
+      if (this.props[name]) {
+        this.props[name](data)
+      }
+    })
   }
 
   render () {
@@ -18,6 +18,39 @@ class TwilioRemotePreview extends React.Component {
       videoTrackSid: PropTypes.string.isRequired
     }),
     onFrameDimensionsChanged: PropTypes.func,
+    /**
+     * Opt-in frame rate and jank monitoring of this view
+     */
+    renderMonitor: PropTypes.shape({
+      enabled: PropTypes.bool,
+      intervalMs: PropTypes.number,
+      freezeThresholdMs: PropTypes.number
+    }),
+    /**
+     * Callback with the render summary of each interval when renderMonitor is set
+     *
+     * @param {{intervalMs, frameRate, framesReceived, longestGapMs, gapHistogram, gapBucketsMs, longestFreezeMs, freezeCount}}
+     */
+    onRenderStats: PropTypes.func,
+    /**
+     * Callback when no frame arrived for freezeThresholdMs while renderMonitor is set
+     *
+     * @param {{frozenMs}}
+     */
+    onRenderFreeze: PropTypes.func,
+    /**
+     * Callback when frames arrive again after onRenderFreeze
+     *
+     * @param {{freezeMs}}
+     */
+    onRenderFreezeEnded: PropTypes.func,
+    /**
+     * Callback with the first frame rendered after the track is bound, and after the view
+     * comes back on screen. Frames are not rendered while the view is off-screen or hidden.
+     *
+     * @param {{trackSid, resumed}}
+     */
+    onFirstFrame: PropTypes.func,
     trackSid: PropTypes.string,
     renderToHardwareTextureAndroid: PropTypes.string,
     onLayout: PropTypes.string,
@@ -34,7 +67,11 @@ class TwilioRemotePreview extends React.Component {
 
   buildNativeEventWrappers () {
     return [
-      'onFrameDimensionsChanged'
+      'onFrameDimensionsChanged',
+      'onRenderStats',
+      'onRenderFreeze',
+      'onRenderFreezeEnded',
+      'onFirstFrame'
     ].reduce((wrappedEvents, eventName) => {
       if (this.props[eventName]) {
         return {